@@ -0,0 +1,56 @@
+package com.example.account_service.benchmarks;
+
+import com.example.account_service.entity.Account;
+import com.example.account_service.entity.AccountListener;
+import com.example.account_service.service.AccountNumberGenerator;
+import com.example.account_service.service.BlockAccountNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountNumberBenchmark {
+
+    private AccountListener listener;
+
+    private AccountNumberGenerator generator;
+
+    @Setup
+    public void setUp() {
+        // Séquence simulée en mémoire : mesure le générateur, pas l'aller-retour base de données
+        AtomicLong sequence = new AtomicLong(1);
+        generator = new BlockAccountNumberGenerator(() -> sequence.getAndAdd(1000), 1000);
+        listener = new AccountListener(generator);
+    }
+
+    @Benchmark
+    public String blockGenerator() {
+        return generator.nextAccountNumber();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String blockGeneratorContended() {
+        return generator.nextAccountNumber();
+    }
+
+    @Benchmark
+    public Account listenerPrePersist() {
+        Account account = new Account();
+        listener.setDefaultValues(account);
+        return account;
+    }
+
+    // Référence : ancien schéma UUID de AccountListener
+    @Benchmark
+    public String legacyUuid() {
+        return "ACC." + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
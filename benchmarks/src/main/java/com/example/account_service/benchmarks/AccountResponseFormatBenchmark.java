@@ -0,0 +1,103 @@
+package com.example.account_service.benchmarks;
+
+import com.example.account_service.config.BinaryFormatsConfig;
+import com.example.account_service.dto.AccountResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Coût CPU et taille des réponses de liste selon l'encodage négocié (JSON, CBOR, Smile),
+ * avec ou sans compression gzip. La taille de la page écrite est rapportée par JMH dans le
+ * compteur secondaire {@code writePage:payloadBytes}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountResponseFormatBenchmark {
+
+    private static final TypeReference<List<AccountResponse>> ACCOUNT_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectMapper objectMapper;
+
+    private Page<AccountResponse> page;
+
+    private byte[] serializedList;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Configuration identique à celle des convertisseurs HTTP du service
+        objectMapper = switch (format) {
+            case "cbor" -> BinaryFormatsConfig.binaryMapper(Jackson2ObjectMapperBuilder.json(), new CBORFactory());
+            case "smile" -> BinaryFormatsConfig.binaryMapper(Jackson2ObjectMapperBuilder.json(), new SmileFactory());
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+
+        List<AccountResponse> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(BenchmarkAccounts.sampleResponse(i + 1L));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+        serializedList = objectMapper.writeValueAsBytes(content);
+    }
+
+    @Benchmark
+    public byte[] writePage(PayloadSize size) throws IOException {
+        byte[] payload = objectMapper.writeValueAsBytes(page);
+        if (gzip) {
+            payload = gzip(payload);
+        }
+        size.payloadBytes = payload.length;
+        return payload;
+    }
+
+    // Côté client : décodage d'une liste reçue (hors décompression)
+    @Benchmark
+    public List<AccountResponse> readList() throws IOException {
+        return objectMapper.readValue(serializedList, ACCOUNT_LIST);
+    }
+
+    /**
+     * Taille en octets de la dernière page écrite ; identique d'une opération à l'autre.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PayloadSize {
+
+        public long payloadBytes;
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(payload);
+        }
+        return buffer.toByteArray();
+    }
+}
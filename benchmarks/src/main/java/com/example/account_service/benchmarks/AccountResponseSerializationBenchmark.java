@@ -0,0 +1,55 @@
+package com.example.account_service.benchmarks;
+
+import com.example.account_service.dto.AccountResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccountResponseSerializationBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private AccountResponse response;
+
+    private Page<AccountResponse> page;
+
+    @Setup
+    public void setUp() {
+        // Même configuration que l'ObjectMapper de Spring Boot (dates ISO-8601, JavaTimeModule)
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        response = BenchmarkAccounts.sampleResponse(1L);
+
+        List<AccountResponse> content = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            content.add(BenchmarkAccounts.sampleResponse(i + 1L));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public byte[] singleAccount() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] accountPage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
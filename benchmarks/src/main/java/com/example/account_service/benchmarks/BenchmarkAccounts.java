@@ -0,0 +1,35 @@
+package com.example.account_service.benchmarks;
+
+import com.example.account_service.dto.AccountResponse;
+import com.example.account_service.entity.Account;
+import com.example.account_service.entity.AccountType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Comptes de test partagés par les benchmarks.
+ */
+public final class BenchmarkAccounts {
+
+    private BenchmarkAccounts() {
+    }
+
+    public static Account sample(long id) {
+        Account account = new Account();
+        account.setId(id);
+        account.setAccountNumber(String.format("FR76%016d", id));
+        account.setCustomerId(1000L + id % 100);
+        account.setAccountType(AccountType.CURRENT);
+        account.setBalance(new BigDecimal("1523.47"));
+        account.setOverdraftLimit(new BigDecimal("500.00"));
+        account.setCurrency("EUR");
+        account.setCreatedAt(LocalDateTime.of(2024, 1, 15, 9, 30));
+        account.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 17, 45, 12));
+        return account;
+    }
+
+    public static AccountResponse sampleResponse(long id) {
+        return AccountResponse.from(sample(id));
+    }
+}
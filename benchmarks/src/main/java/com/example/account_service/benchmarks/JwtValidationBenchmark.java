@@ -0,0 +1,73 @@
+package com.example.account_service.benchmarks;
+
+import com.example.account_service.config.JwtAuthenticationFilter;
+import com.example.account_service.config.JwtTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtValidationBenchmark {
+
+    // Même longueur de secret que application.yml (HS512)
+    private static final String SECRET = "6D7662M7gmjq6qo736C35616B70sI5zyWiPKmrOsJuctP766B37396F746A71647F";
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtAuthenticationFilter filter;
+
+    private JwtParser parser;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        token = Jwts.builder()
+                .setSubject("benchmark-user")
+                .claim("userId", 42)
+                .claim("role", "USER")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + Duration.ofHours(1).toMillis()))
+                .signWith(key)
+                .compact();
+
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+        filter = new JwtAuthenticationFilter(new JwtTokenCache(50_000, Duration.ofMinutes(5)));
+        ReflectionTestUtils.setField(filter, "jwtSecret", SECRET);
+        ReflectionTestUtils.invokeMethod(filter, "initParser");
+    }
+
+    // Chemin complet du filtre : le token est servi par le cache après le premier appel
+    @Benchmark
+    public Object filterWithCachedToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/account/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        return request.getAttribute("userId");
+    }
+
+    // Référence : vérification HMAC et parsing JSON à chaque appel
+    @Benchmark
+    public Claims parseAndVerify() {
+        return parser.parseClaimsJws(token).getBody();
+    }
+}
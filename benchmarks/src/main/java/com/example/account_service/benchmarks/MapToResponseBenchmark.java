@@ -0,0 +1,28 @@
+package com.example.account_service.benchmarks;
+
+import com.example.account_service.dto.AccountResponse;
+import com.example.account_service.entity.Account;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapToResponseBenchmark {
+
+    private Account account;
+
+    @Setup
+    public void setUp() {
+        account = BenchmarkAccounts.sample(1L);
+    }
+
+    @Benchmark
+    public AccountResponse mapToResponse() {
+        return AccountResponse.from(account);
+    }
+}
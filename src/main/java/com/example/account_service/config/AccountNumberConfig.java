@@ -0,0 +1,24 @@
+package com.example.account_service.config;
+
+import com.example.account_service.service.AccountNumberGenerator;
+import com.example.account_service.service.BlockAccountNumberGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class AccountNumberConfig {
+
+    @Bean
+    public AccountNumberGenerator accountNumberGenerator(JdbcTemplate jdbcTemplate) {
+        // La séquence est créée par la migration V1 ; la taille de plage est son pas, partagé par
+        // toutes les instances. information_schema plutôt que le catalogue propre à PostgreSQL.
+        long blockSize = jdbcTemplate.queryForObject(
+                "SELECT CAST(increment AS BIGINT) FROM information_schema.sequences " +
+                "WHERE sequence_schema = CURRENT_SCHEMA AND sequence_name = 'account_number_seq'", Long.class);
+
+        return new BlockAccountNumberGenerator(
+                () -> jdbcTemplate.queryForObject("SELECT nextval('account_number_seq')", Long.class),
+                blockSize);
+    }
+}
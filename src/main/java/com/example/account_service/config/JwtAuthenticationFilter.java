@@ -1,17 +1,21 @@
 package com.example.account_service.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -19,19 +23,35 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import javax.crypto.SecretKey;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Writer partagé et immuable : évite de recréer un ObjectMapper à chaque erreur
+    private static final ObjectWriter ERROR_WRITER = new ObjectMapper().writerFor(Map.class);
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    private final JwtTokenCache jwtTokenCache;
+
+    // Clé et parser construits une seule fois : le JwtParser est immuable et thread-safe
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void initParser() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     @Override
@@ -52,11 +72,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = authHeader.substring(7);
             
             try {
-                Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(getSigningKey())
-                        .build()
-                        .parseClaimsJws(jwt)
-                        .getBody();
+                Claims claims = jwtTokenCache.get(jwt, token -> jwtParser.parseClaimsJws(token).getBody());
 
                 // Token valide, extraire les informations
                 String username = claims.getSubject();
@@ -80,39 +96,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 request.setAttribute("issuedAt", issuedAt);
                 request.setAttribute("expiration", expiration);
 
-                System.out.println("Token validated for user: " + username + 
-                                 " (ID: " + userId + ", Role: " + role + ")");
+                log.debug("Token validated for user: {} (ID: {}, Role: {})", username, userId, role);
 
                 // Continuer la chaîne de filtres avec un token valide
                 filterChain.doFilter(request, response);
                 return;
 
             } catch (ExpiredJwtException e) {
-                System.err.println("Token expired: " + e.getMessage());
+                log.warn("Token expired: {}", e.getMessage());
                 handleErrorResponse(response, HttpStatus.UNAUTHORIZED, 
                         "Token expired", "The JWT token has expired. Please login again.");
                 return;
 
             } catch (MalformedJwtException e) {
-                System.err.println("Invalid JWT token format: " + e.getMessage());
+                log.warn("Invalid JWT token format: {}", e.getMessage());
                 handleErrorResponse(response, HttpStatus.UNAUTHORIZED, 
                         "Invalid token", "The JWT token is malformed.");
                 return;
 
             } catch (UnsupportedJwtException e) {
-                System.err.println("Unsupported JWT token: " + e.getMessage());
+                log.warn("Unsupported JWT token: {}", e.getMessage());
                 handleErrorResponse(response, HttpStatus.UNAUTHORIZED, 
                         "Unsupported token", "The JWT token format is not supported.");
                 return;
 
             } catch (IllegalArgumentException e) {
-                System.err.println("JWT claims string is empty: " + e.getMessage());
+                log.warn("JWT claims string is empty: {}", e.getMessage());
                 handleErrorResponse(response, HttpStatus.UNAUTHORIZED, 
                         "Invalid token", "The JWT token is empty or invalid.");
                 return;
 
             } catch (Exception e) {
-                System.err.println("Token validation error: " + e.getMessage());
+                log.warn("Token validation error: {}", e.getMessage());
                 handleErrorResponse(response, HttpStatus.UNAUTHORIZED, 
                         "Invalid token", "An error occurred while validating the token.");
                 return;
@@ -174,10 +189,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         response.setHeader("Access-Control-Allow-Headers", "Authorization, Content-Type");
 
         // Écrire le JSON dans la réponse
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(response.getOutputStream(), errorResponse);
+        ERROR_WRITER.writeValue(response.getOutputStream(), errorResponse);
 
-        System.err.println("JWT Error Response: " + errorResponse);
+        log.debug("JWT Error Response: {}", errorResponse);
     }
 
     /**
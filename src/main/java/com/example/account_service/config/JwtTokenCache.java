@@ -0,0 +1,89 @@
+package com.example.account_service.config;
+
+import com.example.account_service.dto.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Cache des claims de tokens JWT déjà vérifiés, indexé par l'empreinte SHA-256 du token.
+ *
+ * Une entrée n'est jamais conservée au-delà de l'expiration ({@code exp}) du token,
+ * ni au-delà de {@code jwt.cache.max-ttl}. Les tokens invalides ne sont pas mis en cache.
+ */
+@Component
+public class JwtTokenCache {
+
+    private final Cache<ByteBuffer, Claims> verifiedClaims;
+
+    private final long maxTtlNanos;
+
+    public JwtTokenCache(@Value("${jwt.cache.maximum-size:50000}") long maximumSize,
+                         @Value("${jwt.cache.max-ttl:5m}") Duration maxTtl) {
+        this.maxTtlNanos = maxTtl.toNanos();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+                        return timeToLive(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+                        return timeToLive(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retourne les claims du token, en ne le vérifiant qu'au premier passage.
+     * Les exceptions de vérification sont propagées telles quelles.
+     */
+    public Claims get(String jwt, Function<String, Claims> verifier) {
+        return verifiedClaims.get(digest(jwt), key -> verifier.apply(jwt));
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = verifiedClaims.stats();
+        return new CacheStatsResponse("verifiedJwtClaims", verifiedClaims.estimatedSize(), stats.hitCount(),
+                stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
+    private long timeToLive(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return maxTtlNanos;
+        }
+        long remainingNanos = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+        return Math.max(0, Math.min(remainingNanos, maxTtlNanos));
+    }
+
+    private static ByteBuffer digest(String jwt) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
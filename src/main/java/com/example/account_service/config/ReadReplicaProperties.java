@@ -0,0 +1,39 @@
+package com.example.account_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "account.datasource.read-routing")
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+
+    // Un réplica dont le retard dépasse cette valeur n'est plus utilisé (lecture sur le primaire)
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // Après une écriture, les lectures du même appelant restent sur le primaire pendant cette durée
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    // Retard de réplication en secondes ; vide = retard considéré comme nul (bases embarquées)
+    private String lagQuery =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.account_service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Mémorise les appelants ayant écrit récemment, pour que leurs lectures suivantes
+ * ne tombent pas sur un réplica en retard.
+ *
+ * L'appelant est identifié par l'utilisateur du JWT (attribut {@code userId} posé par
+ * JwtAuthenticationFilter), à défaut par l'adresse du client.
+ */
+public class ReadYourWritesTracker {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void recordWrite() {
+        String caller = currentCaller();
+        if (caller != null) {
+            recentWriters.put(caller, Boolean.TRUE);
+        }
+    }
+
+    public boolean recentlyWrote() {
+        String caller = currentCaller();
+        return caller != null && recentWriters.getIfPresent(caller) != null;
+    }
+
+    static String currentCaller() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        Object userId = attributes.getAttribute("userId", RequestAttributes.SCOPE_REQUEST);
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return "addr:" + servletAttributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
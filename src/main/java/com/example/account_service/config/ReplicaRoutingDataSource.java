@@ -0,0 +1,170 @@
+package com.example.account_service.config;
+
+import com.example.account_service.dto.DataSourcePoolStats;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Source de données des transactions en lecture seule (voir ReadReplicaDataSourceConfig).
+ *
+ * Choisit un réplica à tour de rôle parmi ceux dont le retard mesuré est sous {@code maxLag}.
+ * Retombe sur le primaire si l'appelant vient d'écrire, si aucun réplica n'est assez frais, ou
+ * si la lecture doit voir le dernier état validé ({@link #readFromPrimary}).
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final Map<String, DataSource> pools = new LinkedHashMap<>();
+
+    private final List<String> replicaNames = new ArrayList<>();
+
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> routedConnections = new HashMap<>();
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    private final ReadYourWritesTracker tracker;
+
+    private final double maxLagSeconds;
+
+    private final String lagQuery;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ReadYourWritesTracker tracker, Duration maxLag, String lagQuery) {
+        this.tracker = tracker;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.lagQuery = lagQuery;
+
+        pools.put(PRIMARY, primary);
+        routedConnections.put(PRIMARY, new AtomicLong());
+        replicas.forEach((name, dataSource) -> {
+            pools.put(name, dataSource);
+            replicaNames.add(name);
+            lagSeconds.put(name, 0.0);
+            routedConnections.put(name, new AtomicLong());
+        });
+
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = selectPool();
+        routedConnections.get(key).incrementAndGet();
+        return key;
+    }
+
+    /**
+     * Exécute une lecture sur le primaire même dans une transaction en lecture seule, par exemple
+     * une valeur destinée à un cache local : lue sur un réplica en retard, elle y resterait jusqu'à
+     * expiration. La connexion étant ouverte à la première requête, la lecture doit être la première
+     * de la transaction. Sans effet quand le routage vers les réplicas est désactivé.
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            }
+        }
+    }
+
+    private String selectPool() {
+        if (replicaNames.isEmpty() || PRIMARY_REQUIRED.get() != null || tracker.recentlyWrote()) {
+            return PRIMARY;
+        }
+
+        int start = Math.floorMod(roundRobin.getAndIncrement(), replicaNames.size());
+        for (int i = 0; i < replicaNames.size(); i++) {
+            String name = replicaNames.get((start + i) % replicaNames.size());
+            if (lagSeconds.get(name) <= maxLagSeconds) {
+                return name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Mesure le retard de chaque réplica ; un réplica injoignable est écarté jusqu'à la prochaine mesure.
+     */
+    @Scheduled(fixedDelayString = "${account.datasource.read-routing.lag-check-interval:2s}")
+    public void refreshLag() {
+        for (String name : replicaNames) {
+            lagSeconds.put(name, measureLag(pools.get(name)));
+        }
+    }
+
+    private double measureLag(DataSource replica) {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            return 0.0;
+        }
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? resultSet.getDouble(1) : 0.0;
+        } catch (Exception e) {
+            log.warn("Replica lag check failed: {}", e.getMessage());
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // Les pools des réplicas sont créés ici, le primaire est un bean géré par Spring
+        for (String name : replicaNames) {
+            if (pools.get(name) instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+
+    public List<DataSourcePoolStats> stats() {
+        List<DataSourcePoolStats> stats = new ArrayList<>(pools.size());
+        pools.forEach((name, dataSource) -> {
+            DataSourcePoolStats pool = new DataSourcePoolStats();
+            pool.setName(name);
+            pool.setRole(PRIMARY.equals(name) ? "primary" : "replica");
+            pool.setRoutedConnections(routedConnections.get(name).get());
+            pool.setLagSeconds(lagSeconds.getOrDefault(name, 0.0));
+            pool.setEligible(PRIMARY.equals(name) || lagSeconds.get(name) <= maxLagSeconds);
+
+            if (dataSource instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null) {
+                HikariPoolMXBean mxBean = hikari.getHikariPoolMXBean();
+                pool.setActiveConnections(mxBean.getActiveConnections());
+                pool.setIdleConnections(mxBean.getIdleConnections());
+                pool.setTotalConnections(mxBean.getTotalConnections());
+                pool.setThreadsAwaitingConnection(mxBean.getThreadsAwaitingConnection());
+            }
+            stats.add(pool);
+        });
+        return stats;
+    }
+}
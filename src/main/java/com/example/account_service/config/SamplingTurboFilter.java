@@ -0,0 +1,75 @@
+package com.example.account_service.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Échantillonnage et limitation de débit des logs d'une catégorie (préfixe de nom de logger).
+ *
+ * Le filtre s'exécute avant la construction de l'événement : un message rejeté ne coûte ni
+ * formatage ni allocation. L'échantillonnage ne porte que sur DEBUG et INFO ; les WARN ne sont
+ * soumis qu'à la limite de débit, et les ERROR ne sont jamais filtrés. Configuré dans logback-spring.xml.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String loggerPrefix = "";
+
+    // 1 = tout garder, N = garder un message sur N
+    private int sampleRate = 1;
+
+    // 0 = pas de limite
+    private int maxPerSecond = 0;
+
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    private final AtomicLong currentSecond = new AtomicLong();
+
+    private final AtomicInteger acceptedThisSecond = new AtomicInteger();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format == null : simple appel à isXxxEnabled(), qui ne doit pas consommer le quota
+        if (format == null || level.isGreaterOrEqual(Level.ERROR) || !logger.getName().startsWith(loggerPrefix)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+
+        if (sampleRate > 1 && !level.isGreaterOrEqual(Level.WARN)
+                && sampleCounter.incrementAndGet() % sampleRate != 0) {
+            return FilterReply.DENY;
+        }
+
+        if (maxPerSecond > 0) {
+            long second = System.currentTimeMillis() / 1000;
+            long previous = currentSecond.get();
+            if (second != previous && currentSecond.compareAndSet(previous, second)) {
+                acceptedThisSecond.set(0);
+            }
+            if (acceptedThisSecond.incrementAndGet() > maxPerSecond) {
+                return FilterReply.DENY;
+            }
+        }
+
+        return FilterReply.NEUTRAL;
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = Math.max(0, maxPerSecond);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.account_service.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Source primaire utilisée pour les transactions en écriture : enregistre l'appelant
+ * auprès du {@link ReadYourWritesTracker}, à l'ouverture puis à la fin de la transaction.
+ */
+public class WriteTrackingDataSource extends DelegatingDataSource {
+
+    private final ReadYourWritesTracker tracker;
+
+    public WriteTrackingDataSource(DataSource primary, ReadYourWritesTracker tracker) {
+        super(primary);
+        this.tracker = tracker;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        recordWrite();
+        return super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        recordWrite();
+        return super.getConnection(username, password);
+    }
+
+    private void recordWrite() {
+        tracker.recordWrite();
+
+        // La fenêtre doit courir à partir du commit, même pour une transaction longue
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    tracker.recordWrite();
+                }
+            });
+        }
+    }
+}
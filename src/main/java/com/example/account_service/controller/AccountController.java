@@ -1,25 +1,60 @@
 package com.example.account_service.controller;
 
+import com.example.account_service.config.JwtTokenCache;
+import com.example.account_service.config.ReplicaRoutingDataSource;
+import com.example.account_service.dto.AccountAlertResponse;
+import com.example.account_service.dto.AccountCursorPage;
+import com.example.account_service.dto.AccountLookupRequest;
+import com.example.account_service.dto.AccountLookupResponse;
 import com.example.account_service.dto.AccountResponse;
+import com.example.account_service.dto.BalancePosting;
+import com.example.account_service.dto.BalancePostingResult;
+import com.example.account_service.dto.CacheStatsResponse;
+import com.example.account_service.dto.ConflictStatsResponse;
 import com.example.account_service.dto.CreateAccountRequest;
+import com.example.account_service.dto.CustomerSummaryResponse;
+import com.example.account_service.dto.DataSourcePoolStats;
+import com.example.account_service.dto.ExportFormat;
 import com.example.account_service.dto.UpdateAccountRequest;
+import com.example.account_service.entity.AccountStatus;
+import com.example.account_service.entity.AccountType;
+import com.example.account_service.entity.AlertType;
+import com.example.account_service.service.AccountExportService;
 import com.example.account_service.service.AccountService;
+import com.example.account_service.service.AccountStreamService;
+import com.example.account_service.service.AlertService;
+import com.example.account_service.service.BalanceBatchService;
+import com.example.account_service.service.CustomerSummaryService;
+import com.example.account_service.service.HotAccountService;
+import com.example.account_service.service.IdempotencyService;
+import com.example.account_service.service.OptimisticRetryService;
+import com.example.account_service.service.PreconditionFailedException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @AllArgsConstructor
@@ -30,6 +65,26 @@ public class AccountController {
 
     private AccountService accountService;
 
+    private BalanceBatchService balanceBatchService;
+
+    private JwtTokenCache jwtTokenCache;
+
+    private AccountExportService accountExportService;
+
+    private CustomerSummaryService customerSummaryService;
+
+    private ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource;
+
+    private OptimisticRetryService optimisticRetryService;
+
+    private HotAccountService hotAccountService;
+
+    private IdempotencyService idempotencyService;
+
+    private AlertService alertService;
+
+    private AccountStreamService accountStreamService;
+
     @GetMapping("/user-id")
     @Operation(summary = "identity check", description = "Simple endpoint to check id of the connected user")
     public Integer getUserId(){
@@ -51,40 +106,128 @@ public class AccountController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Account created successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request data"),
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is in progress"),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key reused with a different request"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     public ResponseEntity<AccountResponse> createAccount(
+            @Parameter(description = "Key making client retries safe; a repeated key returns the stored response")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Parameter(description = "Account creation request") @RequestBody CreateAccountRequest request) {
-        AccountResponse response = accountService.createAccount(request);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        return idempotencyService.execute(idempotencyKey, "createAccount", request, AccountResponse.class,
+                () -> new ResponseEntity<>(accountService.createAccount(request), HttpStatus.CREATED));
+    }
+
+    @PostMapping("/bulk")
+    @Operation(summary = "Create accounts in bulk", description = "Create many bank accounts in one request using batched inserts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Accounts created successfully"),
+            @ApiResponse(responseCode = "500", description = "Empty or oversized request")
+    })
+    public ResponseEntity<List<AccountResponse>> createAccounts(
+            @Parameter(description = "Account creation requests") @RequestBody List<CreateAccountRequest> requests) {
+        List<AccountResponse> responses = accountService.createAccounts(requests);
+        return new ResponseEntity<>(responses, HttpStatus.CREATED);
+    }
+
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Cache statistics", description = "Hit, miss and eviction counters of the local account and JWT caches")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        List<CacheStatsResponse> stats = new ArrayList<>(accountService.getCacheStats());
+        stats.add(jwtTokenCache.stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/conflicts/stats")
+    @Operation(summary = "Optimistic locking statistics", description = "Version conflicts, retries and exhausted retries per operation")
+    public ResponseEntity<List<ConflictStatsResponse>> getConflictStats() {
+        return ResponseEntity.ok(optimisticRetryService.stats());
+    }
+
+    @GetMapping("/datasource/stats")
+    @Operation(summary = "Connection pool statistics", description = "Routing counters, replica lag and pool usage of the primary and read replicas (empty when read routing is disabled)")
+    public ResponseEntity<List<DataSourcePoolStats>> getDataSourceStats() {
+        ReplicaRoutingDataSource routing = replicaRoutingDataSource.getIfAvailable();
+        return ResponseEntity.ok(routing != null ? routing.stats() : List.of());
     }
 
     @GetMapping("/{accountId}")
-    @Operation(summary = "Get account by ID", description = "Retrieve account details by account ID")
+    @Operation(summary = "Get account by ID", description = "Retrieve account details by account ID. For a hot account, balance and ETag reflect the folded balance; pending stripe credits are included by GET /{accountId}/balance")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Account found"),
+            @ApiResponse(responseCode = "304", description = "Account unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Account not found")
     })
     public ResponseEntity<AccountResponse> getAccount(
+            @Parameter(description = "ETags already held by the client") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @Parameter(description = "Account ID") @PathVariable Long accountId) {
+        // Revalidation : lecture de la seule version, sans hydrater ni sérialiser le compte
+        if (ifNoneMatch != null) {
+            Optional<String> etag = accountService.getAccountVersion(accountId).map(AccountETags::forVersion);
+            if (etag.isPresent() && AccountETags.matches(ifNoneMatch, etag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).build();
+            }
+        }
+
         AccountResponse response = accountService.getAccountById(accountId);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(AccountETags.forVersion(response.getVersion())).body(response);
+    }
+
+    @PostMapping("/lookup")
+    @Operation(summary = "Look up accounts in bulk", description = "Resolve up to 1000 account IDs and/or account numbers in one call; unknown keys are reported as missing")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Accounts found, keyed by the requested ID or number"),
+            @ApiResponse(responseCode = "500", description = "Empty or oversized request")
+    })
+    public ResponseEntity<AccountLookupResponse> lookupAccounts(
+            @Parameter(description = "Account IDs and account numbers to resolve") @RequestBody AccountLookupRequest request) {
+        return ResponseEntity.ok(accountService.lookupAccounts(request));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream account changes", description = "Server-sent events carrying BalanceUpdateEvent and AccountEvent payloads after each commit, for a set of accounts and/or a customer; pending updates of a slow client are coalesced per account")
+    public SseEmitter streamAccountChanges(
+            @Parameter(description = "Account IDs to follow") @RequestParam(required = false) List<Long> accountIds,
+            @Parameter(description = "Customer ID whose accounts to follow") @RequestParam(required = false) Long customerId) {
+        return accountStreamService.subscribe(accountIds, customerId);
+    }
+
+    @GetMapping("/stream/stats")
+    @Operation(summary = "Stream statistics", description = "Open subscriptions and coalesced or dropped updates")
+    public ResponseEntity<Map<String, Long>> getStreamStats() {
+        return ResponseEntity.ok(accountStreamService.stats());
     }
 
     @GetMapping("/number/{accountNumber}")
-    @Operation(summary = "Get account by number", description = "Retrieve account details by account number")
+    @Operation(summary = "Get account by number", description = "Retrieve account details by account number. For a hot account, balance and ETag reflect the folded balance; pending stripe credits are included by GET /{accountId}/balance")
     public ResponseEntity<AccountResponse> getAccountByNumber(
+            @Parameter(description = "ETags already held by the client") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @Parameter(description = "Account number") @PathVariable String accountNumber) {
+        if (ifNoneMatch != null) {
+            Optional<String> etag = accountService.getAccountVersion(accountNumber).map(AccountETags::forVersion);
+            if (etag.isPresent() && AccountETags.matches(ifNoneMatch, etag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).build();
+            }
+        }
+
         AccountResponse response = accountService.getAccountByNumber(accountNumber);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(AccountETags.forVersion(response.getVersion())).body(response);
     }
 
     @GetMapping("/customer/{customerId}")
     @Operation(summary = "Get customer accounts", description = "Retrieve all accounts for a specific customer")
     public ResponseEntity<List<AccountResponse>> getAccountsByCustomer(
+            @Parameter(description = "ETags already held by the client") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @Parameter(description = "Customer ID") @PathVariable Long customerId) {
+        if (ifNoneMatch != null) {
+            String etag = AccountETags.forVersions(accountService.getAccountVersionsByCustomerId(customerId));
+            if (AccountETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
         List<AccountResponse> accounts = accountService.getAccountsByCustomerId(customerId);
-        return ResponseEntity.ok(accounts);
+        return ResponseEntity.ok().eTag(AccountETags.forAccounts(accounts)).body(accounts);
     }
 
     @GetMapping("/customer/{customerId}/paginated")
@@ -99,14 +242,44 @@ public class AccountController {
         return ResponseEntity.ok(accounts);
     }
 
+    @GetMapping("/customer/{customerId}/summary")
+    @Operation(summary = "Get customer portfolio summary",
+            description = "Account count, total balance of active accounts per currency and breakdown by type and status")
+    public ResponseEntity<CustomerSummaryResponse> getCustomerSummary(
+            @Parameter(description = "Customer ID") @PathVariable Long customerId) {
+        return ResponseEntity.ok(customerSummaryService.getSummary(customerId));
+    }
+
+    @GetMapping("/customer/{customerId}/cursor")
+    @Operation(summary = "Get customer accounts (cursor)",
+            description = "Retrieve customer accounts with keyset pagination; deep pages cost the same as the first one")
+    public ResponseEntity<AccountCursorPage> getAccountsByCustomerCursor(
+            @Parameter(description = "Customer ID") @PathVariable Long customerId,
+            @Parameter(description = "Continuation token returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Also count all customer accounts") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        AccountCursorPage accounts = accountService.getAccountsByCustomerId(customerId, cursor, size, includeTotal);
+        return ResponseEntity.ok(accounts);
+    }
+
     @PutMapping("/{accountId}")
     @Operation(summary = "Update account", description = "Update existing account information")
+    @ApiResponse(responseCode = "412", description = "Account version differs from the ETag in If-Match")
     public ResponseEntity<AccountResponse> updateAccount(
+            @Parameter(description = "ETag the update is based on") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Parameter(description = "Account ID") @PathVariable Long accountId,
             @Parameter(description = "Account update request") @Valid @RequestBody UpdateAccountRequest request) {
 
-        AccountResponse response = accountService.updateAccount(accountId, request);
-        return ResponseEntity.ok(response);
+        Long expectedVersion = AccountETags.requiredVersion(ifMatch);
+        try {
+            // Chaque tentative est une nouvelle transaction du service
+            AccountResponse response = optimisticRetryService.execute("updateAccount",
+                    () -> accountService.updateAccount(accountId, request, expectedVersion));
+            return ResponseEntity.ok().eTag(AccountETags.forVersion(response.getVersion())).body(response);
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
     }
 
     @DeleteMapping("/{accountId}")
@@ -114,7 +287,7 @@ public class AccountController {
     @ApiResponse(responseCode = "204", description = "Account closed successfully")
     public ResponseEntity<Void> closeAccount(
             @Parameter(description = "Account ID") @PathVariable Long accountId) {
-        accountService.closeAccount(accountId);
+        optimisticRetryService.run("closeAccount", () -> accountService.closeAccount(accountId));
         return ResponseEntity.noContent().build();
     }
 
@@ -122,7 +295,7 @@ public class AccountController {
     @Operation(summary = "Suspend account", description = "Suspend an active account")
     public ResponseEntity<Void> suspendAccount(
             @Parameter(description = "Account ID") @PathVariable Long accountId) {
-        accountService.suspendAccount(accountId);
+        optimisticRetryService.run("suspendAccount", () -> accountService.suspendAccount(accountId));
         return ResponseEntity.ok().build();
     }
 
@@ -130,25 +303,166 @@ public class AccountController {
     @Operation(summary = "Activate account", description = "Activate a suspended account")
     public ResponseEntity<Void> activateAccount(
             @Parameter(description = "Account ID") @PathVariable Long accountId) {
-        accountService.activateAccount(accountId);
+        optimisticRetryService.run("activateAccount", () -> accountService.activateAccount(accountId));
         return ResponseEntity.ok().build();
     }
 
     @GetMapping("/{accountId}/balance")
-    @Operation(summary = "Get account balance", description = "Retrieve current account balance")
+    @Operation(summary = "Get account balance", description = "Retrieve current account balance, or the balance at a past instant from the balance journal")
     public ResponseEntity<BigDecimal> getAccountBalance(
-            @Parameter(description = "Account ID") @PathVariable Long accountId) {
-        BigDecimal balance = accountService.getAccountBalance(accountId);
+            @Parameter(description = "Account ID") @PathVariable Long accountId,
+            @Parameter(description = "Instant of the historical balance (ISO date-time); current balance when absent")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        BigDecimal balance = accountService.getAccountBalance(accountId, asOf);
         return ResponseEntity.ok(balance);
     }
 
     @PutMapping("/{accountId}/balance")
     @Operation(summary = "Update account balance", description = "Update account balance directly")
+    @ApiResponse(responseCode = "412", description = "Account version differs from the ETag in If-Match")
     public ResponseEntity<Void> updateBalance(
+            @Parameter(description = "Key making client retries safe; a repeated key returns the stored response")
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Parameter(description = "ETag the update is based on") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Parameter(description = "Account ID") @PathVariable Long accountId,
             @Parameter(description = "New balance amount") @RequestParam BigDecimal newBalance) {
 
-        accountService.updateBalance(accountId, newBalance);
+        Long expectedVersion = AccountETags.requiredVersion(ifMatch);
+        try {
+            // La clé est réservée dans la transaction de chaque tentative : un conflit de version annule les deux
+            return optimisticRetryService.execute("updateBalance",
+                    () -> idempotencyService.execute(idempotencyKey, "updateBalance", List.of(accountId, newBalance), Void.class,
+                            () -> {
+                                accountService.updateBalance(accountId, newBalance, expectedVersion);
+                                return ResponseEntity.ok().<Void>build();
+                            }));
+        } catch (PreconditionFailedException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    @PutMapping("/{accountId}/hot")
+    @Operation(summary = "Configure hot account mode", description = "Spread credits over striped sub-balances folded back into the balance in the background (0 disables)")
+    public ResponseEntity<Void> configureHotAccount(
+            @Parameter(description = "Account ID") @PathVariable Long accountId,
+            @Parameter(description = "Number of sub-balance stripes, 0 to disable") @RequestParam int stripes) {
+        hotAccountService.configure(accountId, stripes);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{accountId}/alerts")
+    @Operation(summary = "Active alerts of an account", description = "Alerts raised by the alert engine and not yet cleared or acknowledged")
+    public ResponseEntity<List<AccountAlertResponse>> getAccountAlerts(
+            @Parameter(description = "Account ID") @PathVariable Long accountId) {
+        return ResponseEntity.ok(alertService.getActiveAlerts(accountId));
+    }
+
+    @GetMapping("/alerts")
+    @Operation(summary = "Active alerts", description = "Active alerts of all accounts, optionally filtered by type, paged by alert ID")
+    public ResponseEntity<List<AccountAlertResponse>> getActiveAlerts(
+            @Parameter(description = "Alert type filter") @RequestParam(required = false) AlertType type,
+            @Parameter(description = "Return alerts with an ID greater than this one") @RequestParam(defaultValue = "0") long afterId,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(alertService.getActiveAlerts(type, afterId, size));
+    }
+
+    @PostMapping("/alerts/{alertId}/acknowledge")
+    @Operation(summary = "Acknowledge alert", description = "Deactivate an alert; it can be raised again if its condition recurs")
+    public ResponseEntity<AccountAlertResponse> acknowledgeAlert(
+            @Parameter(description = "Alert ID") @PathVariable Long alertId) {
+        return ResponseEntity.ok(alertService.acknowledge(alertId));
+    }
+
+    @PutMapping("/{accountId}/alert-rules/{alertType}")
+    @Operation(summary = "Configure alert rule", description = "Override the default rule of an alert type for one account")
+    public ResponseEntity<Void> setAlertRule(
+            @Parameter(description = "Account ID") @PathVariable Long accountId,
+            @Parameter(description = "Alert type") @PathVariable AlertType alertType,
+            @Parameter(description = "Threshold; defaults to the global threshold") @RequestParam(required = false) BigDecimal threshold,
+            @Parameter(description = "Whether the rule is evaluated") @RequestParam(defaultValue = "true") boolean enabled) {
+        alertService.setRule(accountId, alertType, threshold, enabled);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/{accountId}/credit")
+    @Operation(summary = "Credit account", description = "Atomically add an amount to the account balance")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Account credited"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Account not active")
+    })
+    public ResponseEntity<Void> creditAccount(
+            @Parameter(description = "Account ID") @PathVariable Long accountId,
+            @Parameter(description = "Amount to credit") @RequestParam BigDecimal amount) {
+
+        accountService.creditAccount(accountId, amount);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/{accountId}/debit")
+    @Operation(summary = "Debit account", description = "Atomically subtract an amount from the account balance, within the overdraft limit")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Account debited"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Insufficient funds or account not active")
+    })
+    public ResponseEntity<Void> debitAccount(
+            @Parameter(description = "Account ID") @PathVariable Long accountId,
+            @Parameter(description = "Amount to debit") @RequestParam BigDecimal amount) {
+
+        accountService.debitAccount(accountId, amount);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/balance/batch")
+    @Operation(summary = "Apply balance postings in batch",
+            description = "Apply many signed balance postings (credit > 0, debit < 0) in a few batched transactions and return one result per posting")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see per-posting results"),
+            @ApiResponse(responseCode = "500", description = "Empty or oversized batch")
+    })
+    public ResponseEntity<List<BalancePostingResult>> applyBalancePostings(
+            @Parameter(description = "Balance postings") @RequestBody List<BalancePosting> postings) {
+
+        List<BalancePostingResult> results = balanceBatchService.applyPostings(postings);
+        return ResponseEntity.ok(results);
+    }
+
+    @GetMapping("/export/status/{status}")
+    @Operation(summary = "Export accounts by status", description = "Stream all accounts with the given status as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportByStatus(
+            @Parameter(description = "Account status") @PathVariable AccountStatus status,
+            @Parameter(description = "Export format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return export(exportFormat, "accounts-" + status, out -> accountExportService.exportByStatus(status, exportFormat, out));
+    }
+
+    @GetMapping("/export/type/{accountType}")
+    @Operation(summary = "Export accounts by type", description = "Stream all accounts of the given type as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportByAccountType(
+            @Parameter(description = "Account type") @PathVariable AccountType accountType,
+            @Parameter(description = "Export format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return export(exportFormat, "accounts-" + accountType, out -> accountExportService.exportByAccountType(accountType, exportFormat, out));
+    }
+
+    @GetMapping("/export/low-balance")
+    @Operation(summary = "Export low-balance accounts", description = "Stream all accounts whose balance is below the threshold as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportLowBalance(
+            @Parameter(description = "Balance threshold") @RequestParam BigDecimal threshold,
+            @Parameter(description = "Export format: ndjson or csv") @RequestParam(defaultValue = "ndjson") String format) {
+
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return export(exportFormat, "accounts-low-balance", out -> accountExportService.exportLowBalance(threshold, exportFormat, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(ExportFormat format, String fileName, StreamingResponseBody body) {
+        String extension = format == ExportFormat.CSV ? ".csv" : ".ndjson";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header("Content-Disposition", "attachment; filename=\"" + fileName + extension + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.account_service.controller;
+
+import com.example.account_service.dto.AccountResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * ETags forts des ressources compte, dérivés de la version de verrouillage optimiste.
+ *
+ * Un compte : {@code "<version>"}. Une liste de comptes : empreinte des couples (id, version)
+ * triés par ID, calculable aussi bien depuis la réponse que depuis une simple lecture des versions.
+ *
+ * L'ETag couvre la représentation du compte, dont le solde replié : un crédit posé sur un sous-solde
+ * d'un compte chaud ne change ni l'un ni l'autre avant le repliement par l'agrégateur.
+ */
+final class AccountETags {
+
+    private AccountETags() {
+    }
+
+    static String forVersion(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String forAccounts(List<AccountResponse> accounts) {
+        return forVersions(accounts.stream()
+                .sorted(Comparator.comparing(AccountResponse::getId))
+                .map(account -> new Object[]{account.getId(), account.getVersion()})
+                .toList());
+    }
+
+    // Couples [id, version] triés par ID
+    static String forVersions(List<Object[]> versions) {
+        StringBuilder source = new StringBuilder(versions.size() * 16);
+        for (Object[] row : versions) {
+            source.append(row[0]).append(':').append(row[1]).append(';');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Comparaison faible de If-None-Match (RFC 9110) : liste de tags, {@code W/} ignoré, {@code *} accepté.
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Version exigée par If-Match ; null si l'en-tête est absent ou vaut {@code *}.
+     * Un tag qui n'est pas une version de compte ne peut correspondre à rien : -1.
+     */
+    static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.account_service.dto;
+
+import com.example.account_service.entity.AlertType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class AccountAlertResponse {
+
+    private Long id;
+    private Long accountId;
+    private AlertType alertType;
+    private String message;
+    private boolean active;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,23 @@
+package com.example.account_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class AccountCursorPage {
+
+    private List<AccountResponse> content;
+
+    // Jeton opaque à renvoyer pour obtenir la page suivante (null sur la dernière page)
+    private String nextCursor;
+
+    private boolean hasNext;
+
+    // Renseigné uniquement si includeTotal=true
+    private Long totalElements;
+}
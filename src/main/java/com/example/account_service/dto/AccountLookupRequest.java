@@ -0,0 +1,12 @@
+package com.example.account_service.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AccountLookupRequest {
+
+    private List<Long> ids;
+    private List<String> accountNumbers;
+}
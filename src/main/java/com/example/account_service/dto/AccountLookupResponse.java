@@ -0,0 +1,22 @@
+package com.example.account_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class AccountLookupResponse {
+
+    // Comptes trouvés, indexés par la clé demandée
+    private Map<Long, AccountResponse> byId;
+    private Map<String, AccountResponse> byAccountNumber;
+
+    // Clés demandées sans compte correspondant
+    private List<Long> missingIds;
+    private List<String> missingAccountNumbers;
+}
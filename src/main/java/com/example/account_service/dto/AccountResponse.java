@@ -1,12 +1,15 @@
 package com.example.account_service.dto;
 
+import com.example.account_service.entity.Account;
 import com.example.account_service.entity.AccountStatus;
 import com.example.account_service.entity.AccountType;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
+@AllArgsConstructor
 public class AccountResponse {
     
     private Long id;
@@ -14,13 +17,34 @@ public class AccountResponse {
     private Long customerId;
     private AccountType accountType;
     private AccountStatus status;
+    // Solde replié : pour un compte chaud, les crédits en attente n'y figurent qu'après repliement
+    // (voir GET /{accountId}/balance pour le solde disponible)
     private BigDecimal balance;
     private BigDecimal overdraftLimit;
     private String currency;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Version de verrouillage optimiste : sert d'ETag et de précondition If-Match
+    private Long version;
     
     // Constructeurs
     public AccountResponse() {}
 
+    // Le constructeur complet sert aussi aux projections JPQL (AccountRepository.find*Response*)
+
+    public static AccountResponse from(Account account) {
+        AccountResponse response = new AccountResponse();
+        response.setId(account.getId());
+        response.setAccountNumber(account.getAccountNumber());
+        response.setCustomerId(account.getCustomerId());
+        response.setAccountType(account.getAccountType());
+        response.setStatus(account.getStatus());
+        response.setBalance(account.getBalance());
+        response.setOverdraftLimit(account.getOverdraftLimit());
+        response.setCurrency(account.getCurrency());
+        response.setCreatedAt(account.getCreatedAt());
+        response.setUpdatedAt(account.getUpdatedAt());
+        response.setVersion(account.getVersion());
+        return response;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.example.account_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BalancePosting {
+
+    @NotNull(message = "Account ID is required")
+    private Long accountId;
+
+    // Montant signé : positif pour un crédit, négatif pour un débit
+    @NotNull(message = "Amount is required")
+    private BigDecimal amount;
+}
@@ -0,0 +1,20 @@
+package com.example.account_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BalancePostingResult {
+
+    // Position de l'écriture dans la requête d'origine
+    private int index;
+    private Long accountId;
+    private BigDecimal amount;
+    private boolean success;
+    private String message;
+}
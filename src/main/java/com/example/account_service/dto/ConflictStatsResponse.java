@@ -0,0 +1,18 @@
+package com.example.account_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ConflictStatsResponse {
+
+    private String operation;
+    private long calls;
+    private long conflicts;
+    private long retries;
+    private long exhausted;
+    private double conflictRate;
+}
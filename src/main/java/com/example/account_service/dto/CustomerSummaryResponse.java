@@ -0,0 +1,24 @@
+package com.example.account_service.dto;
+
+import com.example.account_service.entity.AccountStatus;
+import com.example.account_service.entity.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class CustomerSummaryResponse {
+
+    private Long customerId;
+    private long accountCount;
+
+    // Comptes actifs seulement ; les soldes ne sont jamais additionnés entre devises différentes
+    private Map<String, BigDecimal> totalBalanceByCurrency;
+    private Map<AccountType, Long> accountsByType;
+    private Map<AccountStatus, Long> accountsByStatus;
+}
@@ -0,0 +1,17 @@
+package com.example.account_service.dto;
+
+import lombok.Data;
+
+@Data
+public class DataSourcePoolStats {
+
+    private String name;
+    private String role;
+    private long routedConnections;
+    private double lagSeconds;
+    private boolean eligible;
+    private int activeConnections;
+    private int idleConnections;
+    private int totalConnections;
+    private int threadsAwaitingConnection;
+}
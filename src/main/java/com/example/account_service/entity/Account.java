@@ -2,20 +2,26 @@ package com.example.account_service.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import javax.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// Le schéma et les index de requête (dont les index partiels) sont définis par les migrations db/migration
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_accounts_customer_id_id", columnList = "customerId, id")
+})
 @Data
 @EntityListeners(AccountListener.class)
 public class Account {
 
+    // Séquence poolée : Hibernate réserve 50 identifiants par appel et peut regrouper les INSERT
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accounts_seq")
+    @SequenceGenerator(name = "accounts_seq", sequenceName = "accounts_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 20)
@@ -47,6 +53,13 @@ public class Account {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Verrouillage optimiste : une mise à jour concurrente fait échouer la seconde écriture
+    // (les UPDATE conditionnels de crédit/débit incrémentent aussi la version)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<AccountAlert> alerts;
 
@@ -1,11 +1,17 @@
 package com.example.account_service.entity;
 
 import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "account_alerts")
+@Table(name = "account_alerts", indexes = {
+        @Index(name = "idx_account_alerts_account_type_active", columnList = "account_id, alertType, isActive")
+})
+@Getter
+@Setter
 public class AccountAlert {
 
     @Id
@@ -0,0 +1,35 @@
+package com.example.account_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Règle d'alerte propre à un compte ; remplace la règle par défaut (account.alerts.*) pour ce type.
+ */
+@Entity
+@Table(name = "account_alert_rules", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_alert_rules", columnNames = {"accountId", "alertType"})
+})
+@Data
+public class AccountAlertRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AlertType alertType;
+
+    // Seuil du type d'alerte ; ignoré pour OVERDRAFT et SECURITY
+    @Column(precision = 15, scale = 2)
+    private BigDecimal threshold;
+
+    @Column(nullable = false)
+    private boolean enabled = true;
+}
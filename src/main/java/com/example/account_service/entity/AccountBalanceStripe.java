@@ -0,0 +1,33 @@
+package com.example.account_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Sous-solde d'un compte "chaud" : les crédits sont répartis sur plusieurs lignes pour ne pas
+ * se sérialiser sur la ligne du compte, puis repliés périodiquement dans {@code Account.balance}.
+ */
+@Entity
+@Table(name = "account_balance_stripes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_balance_stripes", columnNames = {"accountId", "stripe"})
+})
+@Data
+public class AccountBalanceStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_balance_stripes_seq")
+    @SequenceGenerator(name = "account_balance_stripes_seq", sequenceName = "account_balance_stripes_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false)
+    private int stripe;
+
+    // Crédits reçus depuis le dernier repliement
+    @Column(precision = 19, scale = 2, nullable = false)
+    private BigDecimal amount = BigDecimal.ZERO;
+}
@@ -1,15 +1,19 @@
 package com.example.account_service.entity;
 
+import com.example.account_service.service.AccountNumberGenerator;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
+import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Component
+@AllArgsConstructor
 public class AccountListener {
 
+    private AccountNumberGenerator accountNumberGenerator;
+
     @PrePersist
     public void setDefaultValues(Account entity) {
         LocalDateTime now = LocalDateTime.now();
@@ -24,10 +28,7 @@ public class AccountListener {
 
         // Générer un numéro de compte unique si pas déjà défini
         if (entity.getAccountNumber() == null) {
-            // Utiliser UUID pour garantir l'unicité
-            String accountNumber = "ACC." + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-            entity.setAccountNumber(accountNumber);
-            System.out.println("PrePersist - Generated account number: " + accountNumber);
+            entity.setAccountNumber(accountNumberGenerator.nextAccountNumber());
         }
     }
 
@@ -35,4 +36,4 @@ public class AccountListener {
     public void setUpdateTime(Account entity) {
         entity.setUpdatedAt(LocalDateTime.now());
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,5 @@
 package com.example.account_service.entity;
 
-enum AlertType {
+public enum AlertType {
     LOW_BALANCE, HIGH_BALANCE, OVERDRAFT, LARGE_TRANSACTION, SECURITY
-}
\ No newline at end of file
+}
@@ -0,0 +1,5 @@
+package com.example.account_service.entity;
+
+public enum BalanceEntryType {
+    OPENING, CREDIT, DEBIT, ADJUSTMENT, POSTING
+}
@@ -0,0 +1,38 @@
+package com.example.account_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Variation de solde, écrite dans la même transaction que la modification du compte.
+ * Le journal n'est jamais modifié : le solde à une date est la somme des variations jusqu'à cette date.
+ * La colonne {@code tx_id} (transaction d'écriture) est remplie par la base, voir la migration V3.
+ */
+@Entity
+@Table(name = "balance_journal", indexes = {
+        @Index(name = "idx_balance_journal_account_recorded_at", columnList = "accountId, recordedAt")
+})
+@Data
+public class BalanceJournalEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_journal_seq")
+    @SequenceGenerator(name = "balance_journal_seq", sequenceName = "balance_journal_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(precision = 19, scale = 2, nullable = false)
+    private BigDecimal delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private BalanceEntryType entryType;
+
+    @Column(nullable = false)
+    private LocalDateTime recordedAt;
+}
@@ -0,0 +1,35 @@
+package com.example.account_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Solde d'un compte à l'instant {@code asOf}, calculé depuis le journal : une lecture historique
+ * part du dernier instantané antérieur et ne rejoue que les variations suivantes.
+ * La colonne {@code cut_xid} (coupure en identifiant de transaction) est écrite en SQL, voir la migration V3.
+ */
+@Entity
+@Table(name = "balance_snapshots", indexes = {
+        @Index(name = "idx_balance_snapshots_account_as_of", columnList = "accountId, asOf"),
+        @Index(name = "idx_balance_snapshots_as_of", columnList = "asOf")
+})
+@Data
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_snapshots_seq")
+    @SequenceGenerator(name = "balance_snapshots_seq", sequenceName = "balance_snapshots_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(precision = 19, scale = 2, nullable = false)
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private LocalDateTime asOf;
+}
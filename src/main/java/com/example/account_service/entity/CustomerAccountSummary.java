@@ -0,0 +1,43 @@
+package com.example.account_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Totaux maintenus par client, devise, type et statut de compte.
+ * Mis à jour de façon incrémentale quand {@code account.summary.maintained=true}.
+ */
+@Entity
+@Table(name = "customer_account_summary", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_customer_account_summary",
+                columnNames = {"customerId", "currency", "accountType", "status"})
+})
+@Data
+public class CustomerAccountSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    @Column(nullable = false)
+    private String currency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AccountType accountType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AccountStatus status;
+
+    @Column(nullable = false)
+    private long accountCount;
+
+    @Column(precision = 19, scale = 2, nullable = false)
+    private BigDecimal totalBalance;
+}
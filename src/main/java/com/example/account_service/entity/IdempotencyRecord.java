@@ -0,0 +1,40 @@
+package com.example.account_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Réponse enregistrée pour une clé d'idempotence (en-tête {@code Idempotency-Key}).
+ * La ligne est insérée dans la même transaction que l'opération : elle n'existe que si l'opération a été validée.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expiresAt")
+})
+@Data
+public class IdempotencyRecord {
+
+    // Empreinte SHA-256 (128 premiers bits, en hexadécimal) de l'appelant, de l'opération et de la clé
+    @Id
+    @Column(length = 32)
+    private String keyHash;
+
+    @Column(nullable = false, length = 50)
+    private String operation;
+
+    @Column(nullable = false)
+    private long requestHash;
+
+    private Integer responseStatus;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,35 @@
+package com.example.account_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement en attente de publication, écrit dans la même transaction que la modification du compte.
+ */
+@Entity
+@Table(name = "account_outbox")
+@Data
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_outbox_seq")
+    @SequenceGenerator(name = "account_outbox_seq", sequenceName = "account_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String topic;
+
+    @Column(nullable = false, length = 50)
+    private String eventType;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,39 @@
+package com.example.account_service.repository;
+
+import com.example.account_service.dto.AccountAlertResponse;
+import com.example.account_service.entity.AccountAlert;
+import com.example.account_service.entity.AlertType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountAlertRepository extends JpaRepository<AccountAlert, Long> {
+
+    String RESPONSE_PROJECTION =
+            "SELECT new com.example.account_service.dto.AccountAlertResponse(" +
+            "al.id, al.account.id, al.alertType, al.message, al.isActive, al.createdAt) FROM AccountAlert al ";
+
+    @Query(RESPONSE_PROJECTION + "WHERE al.account.id = :accountId AND al.isActive = true ORDER BY al.id")
+    List<AccountAlertResponse> findActiveByAccountId(@Param("accountId") Long accountId);
+
+    // Pagination par clé sur l'ID ; type facultatif
+    @Query(RESPONSE_PROJECTION + "WHERE al.isActive = true AND al.id > :afterId " +
+           "AND (:alertType IS NULL OR al.alertType = :alertType) ORDER BY al.id")
+    List<AccountAlertResponse> findActiveAfter(@Param("alertType") AlertType alertType,
+                                               @Param("afterId") long afterId,
+                                               Limit limit);
+
+    @Query(RESPONSE_PROJECTION + "WHERE al.id = :alertId")
+    Optional<AccountAlertResponse> findResponseById(@Param("alertId") Long alertId);
+
+    @Modifying
+    @Query("UPDATE AccountAlert al SET al.isActive = false WHERE al.id = :alertId AND al.isActive = true")
+    int deactivate(@Param("alertId") Long alertId);
+}
@@ -0,0 +1,14 @@
+package com.example.account_service.repository;
+
+import com.example.account_service.entity.AccountAlertRule;
+import com.example.account_service.entity.AlertType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AccountAlertRuleRepository extends JpaRepository<AccountAlertRule, Long> {
+
+    Optional<AccountAlertRule> findByAccountIdAndAlertType(Long accountId, AlertType alertType);
+}
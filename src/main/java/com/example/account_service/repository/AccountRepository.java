@@ -1,18 +1,27 @@
 package com.example.account_service.repository;
 
+import com.example.account_service.dto.AccountResponse;
 import com.example.account_service.entity.Account;
 import com.example.account_service.entity.AccountStatus;
 import com.example.account_service.entity.AccountType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
@@ -24,6 +33,52 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     List<Account> findByCustomerIdAndStatus(Long customerId, AccountStatus status);
     
     Page<Account> findByCustomerId(Long customerId, Pageable pageable);
+
+    // Projections en lecture : le DTO est construit directement par la requête,
+    // sans entité gérée à capturer ni à comparer au flush
+    String RESPONSE_PROJECTION = "SELECT new com.example.account_service.dto.AccountResponse(" +
+            "a.id, a.accountNumber, a.customerId, a.accountType, a.status, a.balance, " +
+            "a.overdraftLimit, a.currency, a.createdAt, a.updatedAt, a.version) FROM Account a ";
+
+    @Query(RESPONSE_PROJECTION + "WHERE a.id = :accountId")
+    Optional<AccountResponse> findResponseById(@Param("accountId") Long accountId);
+
+    @Query(RESPONSE_PROJECTION + "WHERE a.accountNumber = :accountNumber")
+    Optional<AccountResponse> findResponseByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    // Recherche groupée : appelées par tranches bornées (voir AccountService.lookupAccounts)
+    @Query(RESPONSE_PROJECTION + "WHERE a.id IN :accountIds")
+    List<AccountResponse> findResponsesByIdIn(@Param("accountIds") Collection<Long> accountIds);
+
+    @Query(RESPONSE_PROJECTION + "WHERE a.accountNumber IN :accountNumbers")
+    List<AccountResponse> findResponsesByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    @Query(RESPONSE_PROJECTION + "WHERE a.customerId = :customerId")
+    List<AccountResponse> findResponsesByCustomerId(@Param("customerId") Long customerId);
+
+    @Query(value = RESPONSE_PROJECTION + "WHERE a.customerId = :customerId",
+           countQuery = "SELECT COUNT(a) FROM Account a WHERE a.customerId = :customerId")
+    Page<AccountResponse> findResponsesByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    // Pagination par clé (seek) : parcourt l'index (customerId, id) sans OFFSET ni COUNT
+    @Query(RESPONSE_PROJECTION + "WHERE a.customerId = :customerId AND a.id > :afterId ORDER BY a.id")
+    List<AccountResponse> findResponsesByCustomerIdAfter(@Param("customerId") Long customerId,
+                                                         @Param("afterId") Long afterId,
+                                                         Limit limit);
+
+    // Lectures de version pour les requêtes conditionnelles (If-None-Match) : aucune entité hydratée
+    @Query("SELECT a.version FROM Account a WHERE a.id = :accountId")
+    Optional<Long> findVersionById(@Param("accountId") Long accountId);
+
+    @Query("SELECT a.version FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Long> findVersionByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    // [id, version] des comptes du client, triés par ID
+    @Query("SELECT a.id, a.version FROM Account a WHERE a.customerId = :customerId ORDER BY a.id")
+    List<Object[]> findVersionsByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("SELECT a.balance FROM Account a WHERE a.id = :accountId")
+    Optional<BigDecimal> findBalanceById(@Param("accountId") Long accountId);
     
     List<Account> findByAccountType(AccountType accountType);
     
@@ -32,11 +87,68 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
     @Query("SELECT a FROM Account a WHERE a.balance < :threshold")
     List<Account> findAccountsWithLowBalance(@Param("threshold") BigDecimal threshold);
     
+    // Variantes en flux pour l'export : curseur JDBC avec un fetch size élevé, entités en lecture seule.
+    // Doivent être consommées dans une transaction et fermées après usage.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Account a WHERE a.status = :status")
+    Stream<Account> streamByStatus(@Param("status") AccountStatus status);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Account a WHERE a.accountType = :accountType")
+    Stream<Account> streamByAccountType(@Param("accountType") AccountType accountType);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Account a WHERE a.balance < :threshold")
+    Stream<Account> streamAccountsWithLowBalance(@Param("threshold") BigDecimal threshold);
+    
     @Query("SELECT COUNT(a) FROM Account a WHERE a.customerId = :customerId")
     long countAccountsByCustomerId(@Param("customerId") Long customerId);
     
     @Query("SELECT SUM(a.balance) FROM Account a WHERE a.customerId = :customerId AND a.status = 'ACTIVE'")
     BigDecimal getTotalBalanceByCustomerId(@Param("customerId") Long customerId);
+
+    // Une ligne par (devise, type, statut) : [currency, accountType, status, count, sum(balance)]
+    @Query("SELECT a.currency, a.accountType, a.status, COUNT(a), SUM(a.balance) FROM Account a " +
+           "WHERE a.customerId = :customerId GROUP BY a.currency, a.accountType, a.status")
+    List<Object[]> summarizeByCustomerId(@Param("customerId") Long customerId);
     
     boolean existsByAccountNumber(String accountNumber);
+
+    /**
+     * Crédit atomique : un seul UPDATE conditionnel, sans lecture préalable du compte.
+     * Retourne le nombre de lignes modifiées (0 si le compte est absent ou non actif).
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance + :amount, a.updatedAt = :now, a.version = a.version + 1 " +
+           "WHERE a.id = :accountId AND a.status = 'ACTIVE'")
+    int creditBalance(@Param("accountId") Long accountId,
+                      @Param("amount") BigDecimal amount,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Débit atomique : la vérification du découvert autorisé est faite dans la clause WHERE.
+     * Retourne 0 si le compte est absent, non actif ou si les fonds sont insuffisants.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balance = a.balance - :amount, a.updatedAt = :now, a.version = a.version + 1 " +
+           "WHERE a.id = :accountId AND a.status = 'ACTIVE' " +
+           "AND a.balance - :amount + COALESCE(a.overdraftLimit, 0) >= 0")
+    int debitBalance(@Param("accountId") Long accountId,
+                     @Param("amount") BigDecimal amount,
+                     @Param("now") LocalDateTime now);
+
+    @Query("SELECT a.status FROM Account a WHERE a.id = :accountId")
+    Optional<AccountStatus> findStatusById(@Param("accountId") Long accountId);
+
+    @Query("SELECT a.id, a.status FROM Account a WHERE a.id IN :accountIds")
+    List<Object[]> findStatusesByIdIn(@Param("accountIds") Collection<Long> accountIds);
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.account_service.repository;
+
+import com.example.account_service.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Réserve la clé pour la transaction courante. Une requête concurrente portant la même clé
+     * attend ici la fin de cette transaction, puis ne réserve rien (0 ligne) si elle a été validée.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (key_hash, operation, request_hash, created_at, expires_at) " +
+                   "VALUES (:keyHash, :operation, :requestHash, :createdAt, :expiresAt) " +
+                   "ON CONFLICT (key_hash) DO NOTHING",
+           nativeQuery = true)
+    int claim(@Param("keyHash") String keyHash,
+              @Param("operation") String operation,
+              @Param("requestHash") long requestHash,
+              @Param("createdAt") LocalDateTime createdAt,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseStatus = :status, r.responseBody = :body WHERE r.keyHash = :keyHash")
+    int complete(@Param("keyHash") String keyHash, @Param("status") int status, @Param("body") String body);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.keyHash = :keyHash AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("keyHash") String keyHash, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE key_hash IN " +
+                   "(SELECT key_hash FROM idempotency_keys WHERE expires_at < :now LIMIT :limit)",
+           nativeQuery = true)
+    int purgeExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
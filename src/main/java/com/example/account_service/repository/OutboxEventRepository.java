@@ -0,0 +1,21 @@
+package com.example.account_service.repository;
+
+import com.example.account_service.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Réserve un lot d'événements pour la transaction courante.
+     * SKIP LOCKED permet à plusieurs instances de vider l'outbox en parallèle sans se bloquer.
+     */
+    @Query(value = "SELECT * FROM account_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> claimBatch(@Param("limit") int limit);
+}
@@ -0,0 +1,129 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.AccountResponse;
+import com.example.account_service.dto.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache local en lecture des comptes, indexé par ID et par numéro de compte.
+ *
+ * Les entrées sont invalidées uniquement après le commit de la transaction qui les modifie :
+ * une lecture concurrente ne peut donc pas réinsérer une valeur antérieure au commit, grâce au
+ * compteur d'invalidations vérifié avant chaque insertion. Le cache n'est pas partagé entre
+ * instances ; le TTL borne la fraîcheur des données modifiées par une autre instance.
+ */
+@Component
+public class AccountCache {
+
+    private final Cache<Long, AccountResponse> accountsById;
+
+    // Le numéro de compte ne change jamais, cet index n'a pas besoin d'être invalidé
+    private final Cache<String, Long> idsByNumber;
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AccountCache(@Value("${account.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${account.cache.ttl:30s}") Duration ttl) {
+        this.accountsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsByNumber = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public AccountResponse getById(Long accountId, Function<Long, AccountResponse> loader) {
+        AccountResponse cached = accountsById.getIfPresent(accountId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = invalidations.get();
+        AccountResponse loaded = loader.apply(accountId);
+        remember(loaded, generation);
+        return loaded;
+    }
+
+    public AccountResponse getIfPresent(Long accountId) {
+        return accountsById.getIfPresent(accountId);
+    }
+
+    public AccountResponse getByNumber(String accountNumber, Function<String, AccountResponse> loader) {
+        Long accountId = idsByNumber.getIfPresent(accountNumber);
+        if (accountId != null) {
+            AccountResponse cached = accountsById.getIfPresent(accountId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        long generation = invalidations.get();
+        AccountResponse loaded = loader.apply(accountNumber);
+        remember(loaded, generation);
+        return loaded;
+    }
+
+    public void evictAfterCommit(Long accountId) {
+        evictAfterCommit(List.of(accountId));
+    }
+
+    /**
+     * Invalide les comptes après le commit de la transaction courante,
+     * ou immédiatement si aucune transaction n'est active.
+     */
+    public void evictAfterCommit(Collection<Long> accountIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(accountIds);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(accountIds);
+            }
+        });
+    }
+
+    public List<CacheStatsResponse> stats() {
+        return List.of(
+                toResponse("accountsById", accountsById),
+                toResponse("idsByNumber", idsByNumber)
+        );
+    }
+
+    private void remember(AccountResponse account, long generation) {
+        // Vérification et insertion sous le verrou de l'entrée : une invalidation concurrente du même
+        // compte attend la fin de compute() et retire la valeur ensuite. Si une invalidation a eu lieu
+        // pendant le chargement, la valeur lue est peut-être périmée et n'est pas insérée.
+        accountsById.asMap().compute(account.getId(),
+                (id, current) -> invalidations.get() == generation ? account : current);
+        idsByNumber.put(account.getAccountNumber(), account.getId());
+    }
+
+    private void evict(Collection<Long> accountIds) {
+        invalidations.incrementAndGet();
+        accountsById.invalidateAll(accountIds);
+    }
+
+    private CacheStatsResponse toResponse(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse(name, cache.estimatedSize(), stats.hitCount(),
+                stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+}
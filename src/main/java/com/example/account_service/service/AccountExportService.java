@@ -0,0 +1,115 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.AccountResponse;
+import com.example.account_service.dto.ExportFormat;
+import com.example.account_service.entity.Account;
+import com.example.account_service.entity.AccountStatus;
+import com.example.account_service.entity.AccountType;
+import com.example.account_service.repository.AccountRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Export des comptes en flux continu (NDJSON ou CSV).
+ *
+ * Les lignes sont lues via un curseur JDBC (voir les méthodes stream* du repository), écrites
+ * immédiatement puis détachées du contexte de persistance : la mémoire reste constante
+ * quel que soit le nombre de comptes exportés. Chaque export s'exécute dans une transaction
+ * en lecture seule, nécessaire au curseur PostgreSQL.
+ */
+@Service
+@AllArgsConstructor
+public class AccountExportService {
+
+    private static final String CSV_HEADER =
+            "id,accountNumber,customerId,accountType,status,balance,overdraftLimit,currency,createdAt,updatedAt\n";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private AccountRepository accountRepository;
+
+    private EntityManager entityManager;
+
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportByStatus(AccountStatus status, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Account> accounts = accountRepository.streamByStatus(status)) {
+            write(accounts, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportByAccountType(AccountType accountType, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Account> accounts = accountRepository.streamByAccountType(accountType)) {
+            write(accounts, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportLowBalance(BigDecimal threshold, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Account> accounts = accountRepository.streamAccountsWithLowBalance(threshold)) {
+            write(accounts, format, out);
+        }
+    }
+
+    private void write(Stream<Account> accounts, ExportFormat format, OutputStream out) throws IOException {
+        BufferedOutputStream buffer = new BufferedOutputStream(out, BUFFER_SIZE);
+        ObjectWriter jsonWriter = objectMapper.writer();
+
+        if (format == ExportFormat.CSV) {
+            buffer.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Iterator<Account> iterator = accounts.iterator();
+        while (iterator.hasNext()) {
+            Account account = iterator.next();
+            if (format == ExportFormat.CSV) {
+                buffer.write(toCsvLine(account).getBytes(StandardCharsets.UTF_8));
+            } else {
+                buffer.write(jsonWriter.writeValueAsBytes(AccountResponse.from(account)));
+                buffer.write('\n');
+            }
+            entityManager.detach(account);
+        }
+
+        buffer.flush();
+    }
+
+    private String toCsvLine(Account account) {
+        return new StringBuilder(160)
+                .append(account.getId()).append(',')
+                .append(csv(account.getAccountNumber())).append(',')
+                .append(account.getCustomerId()).append(',')
+                .append(account.getAccountType()).append(',')
+                .append(account.getStatus()).append(',')
+                .append(account.getBalance().toPlainString()).append(',')
+                .append(account.getOverdraftLimit() != null ? account.getOverdraftLimit().toPlainString() : "").append(',')
+                .append(csv(account.getCurrency())).append(',')
+                .append(account.getCreatedAt()).append(',')
+                .append(account.getUpdatedAt()).append('\n')
+                .toString();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.account_service.service;
+
+/**
+ * Génère les numéros de compte attribués à la création (voir AccountListener).
+ * Les implémentations doivent être thread-safe et ne jamais produire deux fois le même numéro.
+ */
+public interface AccountNumberGenerator {
+
+    String nextAccountNumber();
+}
@@ -1,36 +1,77 @@
 package com.example.account_service.service;
 
+import com.example.account_service.config.ReplicaRoutingDataSource;
 import com.example.account_service.dto.*;
 import com.example.account_service.entity.Account;
 import com.example.account_service.entity.AccountStatus;
+import com.example.account_service.entity.BalanceEntryType;
 import com.example.account_service.repository.AccountRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @Transactional
 @AllArgsConstructor
 public class AccountService {
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 500;
+
+    private static final int MAX_BULK_ACCOUNTS = 50_000;
+
+    // Aligné sur hibernate.jdbc.batch_size
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    private static final int MAX_LOOKUP_KEYS = 1000;
+
+    // Taille des listes IN de la recherche groupée
+    private static final int LOOKUP_CHUNK_SIZE = 500;
     
     private AccountRepository accountRepository;
 
     private HttpServletRequest request;
 
+    private AccountCache accountCache;
+
+    private OutboxService outboxService;
+
+    private CustomerSummaryService customerSummaryService;
+
+    private EntityManager entityManager;
+
+    private HotAccountService hotAccountService;
+
+    private AlertService alertService;
+
+    private BalanceJournalService balanceJournalService;
+
     public Integer getUserId(){
         Object userId = request.getAttribute("userId");
 
-        System.out.println("userId: " + userId);
+        log.debug("userId: {}", userId);
 
         return (Integer) userId;
     }
@@ -38,6 +79,52 @@ public class AccountService {
     public AccountResponse createAccount(CreateAccountRequest request) {
         
         // Création du compte
+        Account account = toAccount(request);
+        
+        Account savedAccount = accountRepository.save(account);
+        customerSummaryService.accountCreated(savedAccount);
+        balanceJournalService.record(savedAccount.getId(), savedAccount.getBalance(), BalanceEntryType.OPENING);
+        
+        // Publication d'un événement
+        outboxService.publishAccountEvent("ACCOUNT_CREATED", savedAccount);
+        
+        return AccountResponse.from(savedAccount);
+    }
+
+    /**
+     * Création en masse : les INSERT partent par lots JDBC (identifiants tirés d'une séquence
+     * poolée), et le contexte de persistance est vidé après chaque lot pour borner la mémoire.
+     */
+    public List<AccountResponse> createAccounts(List<CreateAccountRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one account is required");
+        }
+        if (requests.size() > MAX_BULK_ACCOUNTS) {
+            throw new IllegalArgumentException("A bulk request cannot contain more than " + MAX_BULK_ACCOUNTS + " accounts");
+        }
+
+        List<AccountResponse> responses = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += BULK_CHUNK_SIZE) {
+            List<Account> accounts = requests.subList(from, Math.min(from + BULK_CHUNK_SIZE, requests.size()))
+                .stream()
+                .map(this::toAccount)
+                .collect(Collectors.toList());
+
+            List<Account> savedAccounts = accountRepository.saveAll(accounts);
+            customerSummaryService.accountsCreated(savedAccounts);
+            savedAccounts.forEach(saved ->
+                balanceJournalService.record(saved.getId(), saved.getBalance(), BalanceEntryType.OPENING));
+            outboxService.publishAccountEvents("ACCOUNT_CREATED", savedAccounts);
+
+            accountRepository.flush();
+            savedAccounts.forEach(account -> responses.add(AccountResponse.from(account)));
+            entityManager.clear();
+        }
+
+        return responses;
+    }
+
+    private Account toAccount(CreateAccountRequest request) {
         Account account = new Account();
 
         if (request.getAccountType() != null) {
@@ -60,44 +147,132 @@ public class AccountService {
         if (request.getInitialDeposit() != null && request.getInitialDeposit().compareTo(BigDecimal.ZERO) > 0) {
             account.setBalance(request.getInitialDeposit());
         }
-        
-        Account savedAccount = accountRepository.save(account);
-        
-        // Publication d'un événement
-        //publishAccountEvent("ACCOUNT_CREATED", savedAccount);
-        
-        return mapToResponse(savedAccount);
+
+        return account;
     }
     
+    // Les valeurs mises en cache sont lues sur le primaire : un réplica en retard réinsérerait
+    // l'état antérieur à une modification pour toute la durée du TTL
+    @Transactional(readOnly = true)
     public AccountResponse getAccountById(Long accountId) {
-        Account account = accountRepository.findById(accountId)
-            .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + accountId));
-        
-        return mapToResponse(account);
+        return accountCache.getById(accountId, id -> ReplicaRoutingDataSource.readFromPrimary(
+            () -> accountRepository.findResponseById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + id))));
     }
     
+    /**
+     * Versions seules, pour répondre 304 sans charger ni sérialiser le compte.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> getAccountVersion(Long accountId) {
+        return accountRepository.findVersionById(accountId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Long> getAccountVersion(String accountNumber) {
+        return accountRepository.findVersionByAccountNumber(accountNumber);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Object[]> getAccountVersionsByCustomerId(Long customerId) {
+        return accountRepository.findVersionsByCustomerId(customerId);
+    }
+
+    @Transactional(readOnly = true)
     public AccountResponse getAccountByNumber(String accountNumber) {
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-            .orElseThrow(() -> new EntityNotFoundException("Account not found with number: " + accountNumber));
-        
-        return mapToResponse(account);
+        return accountCache.getByNumber(accountNumber, number -> ReplicaRoutingDataSource.readFromPrimary(
+            () -> accountRepository.findResponseByAccountNumber(number)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found with number: " + number))));
     }
     
+    /**
+     * Résout un lot d'IDs et de numéros de compte avec quelques requêtes IN par tranches,
+     * les comptes déjà en cache n'étant pas relus.
+     */
+    @Transactional(readOnly = true)
+    public AccountLookupResponse lookupAccounts(AccountLookupRequest request) {
+        Set<Long> ids = request.getIds() != null ? new LinkedHashSet<>(request.getIds()) : Set.of();
+        Set<String> numbers = request.getAccountNumbers() != null ? new LinkedHashSet<>(request.getAccountNumbers()) : Set.of();
+        ids.remove(null);
+        numbers.remove(null);
+        if (ids.isEmpty() && numbers.isEmpty()) {
+            throw new IllegalArgumentException("At least one account ID or account number is required");
+        }
+        if (ids.size() + numbers.size() > MAX_LOOKUP_KEYS) {
+            throw new IllegalArgumentException("A lookup cannot contain more than " + MAX_LOOKUP_KEYS + " keys");
+        }
+
+        Map<Long, AccountResponse> byId = new LinkedHashMap<>();
+        List<Long> uncachedIds = new ArrayList<>();
+        for (Long id : ids) {
+            AccountResponse cached = accountCache.getIfPresent(id);
+            if (cached != null) {
+                byId.put(id, cached);
+            } else {
+                uncachedIds.add(id);
+            }
+        }
+        for (int from = 0; from < uncachedIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = uncachedIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, uncachedIds.size()));
+            accountRepository.findResponsesByIdIn(chunk).forEach(account -> byId.put(account.getId(), account));
+        }
+
+        Map<String, AccountResponse> byNumber = new LinkedHashMap<>();
+        List<String> numberList = new ArrayList<>(numbers);
+        for (int from = 0; from < numberList.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = numberList.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, numberList.size()));
+            accountRepository.findResponsesByAccountNumberIn(chunk)
+                .forEach(account -> byNumber.put(account.getAccountNumber(), account));
+        }
+
+        List<Long> missingIds = ids.stream().filter(id -> !byId.containsKey(id)).toList();
+        List<String> missingNumbers = numbers.stream().filter(number -> !byNumber.containsKey(number)).toList();
+        return new AccountLookupResponse(byId, byNumber, missingIds, missingNumbers);
+    }
+
+    @Transactional(readOnly = true)
     public List<AccountResponse> getAccountsByCustomerId(Long customerId) {
-        List<Account> accounts = accountRepository.findByCustomerId(customerId);
-        return accounts.stream()
-            .map(this::mapToResponse)
-            .collect(Collectors.toList());
+        return accountRepository.findResponsesByCustomerId(customerId);
     }
     
+    @Transactional(readOnly = true)
     public Page<AccountResponse> getAccountsByCustomerId(Long customerId, Pageable pageable) {
-        Page<Account> accounts = accountRepository.findByCustomerId(customerId, pageable);
-        return accounts.map(this::mapToResponse);
+        return accountRepository.findResponsesByCustomerId(customerId, pageable);
+    }
+    
+    @Transactional(readOnly = true)
+    public AccountCursorPage getAccountsByCustomerId(Long customerId, String cursor, int size, boolean includeTotal) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        long afterId = cursor == null || cursor.isBlank() ? 0L : decodeCursor(customerId, cursor);
+
+        // Une ligne de plus que demandé pour savoir s'il existe une page suivante
+        List<AccountResponse> accounts = accountRepository.findResponsesByCustomerIdAfter(
+                customerId, afterId, Limit.of(size + 1));
+
+        boolean hasNext = accounts.size() > size;
+        List<AccountResponse> content = hasNext ? accounts.subList(0, size) : accounts;
+
+        String nextCursor = hasNext ? encodeCursor(customerId, content.get(content.size() - 1).getId()) : null;
+        Long total = includeTotal ? accountRepository.countAccountsByCustomerId(customerId) : null;
+
+        return new AccountCursorPage(content, nextCursor, hasNext, total);
     }
     
     public AccountResponse updateAccount(Long accountId, UpdateAccountRequest request) {
+        return updateAccount(accountId, request, null);
+    }
+
+    /**
+     * @param expectedVersion version attendue (If-Match), ou null pour ne pas la vérifier
+     */
+    public AccountResponse updateAccount(Long accountId, UpdateAccountRequest request, Long expectedVersion) {
         Account account = accountRepository.findById(accountId)
             .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + accountId));
+        requireVersion(account, expectedVersion, 0);
+        String previousCurrency = account.getCurrency();
         
         if (request.getOverdraftLimit() != null) {
             account.setOverdraftLimit(request.getOverdraftLimit());
@@ -108,10 +283,14 @@ public class AccountService {
         }
         
         Account updatedAccount = accountRepository.save(account);
+        customerSummaryService.accountMoved(updatedAccount, previousCurrency, updatedAccount.getStatus());
+        accountCache.evictAfterCommit(accountId);
         
-        //publishAccountEvent("ACCOUNT_UPDATED", updatedAccount);
+        outboxService.publishAccountEvent("ACCOUNT_UPDATED", updatedAccount);
         
-        return mapToResponse(updatedAccount);
+        // La version n'est incrémentée qu'au flush : la réponse doit porter la nouvelle
+        accountRepository.flush();
+        return AccountResponse.from(updatedAccount);
     }
     
     public void closeAccount(Long accountId) {
@@ -122,92 +301,199 @@ public class AccountService {
             throw new RuntimeException("Cannot close account with non-zero balance");
         }
         
+        AccountStatus previousStatus = account.getStatus();
         account.setStatus(AccountStatus.CLOSED);
         accountRepository.save(account);
+        customerSummaryService.accountMoved(account, account.getCurrency(), previousStatus);
+        alertService.statusChanged(account, previousStatus);
+        accountCache.evictAfterCommit(accountId);
         
-        //publishAccountEvent("ACCOUNT_CLOSED", account);
+        outboxService.publishAccountEvent("ACCOUNT_CLOSED", account);
     }
     
     public void suspendAccount(Long accountId) {
         Account account = accountRepository.findById(accountId)
             .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + accountId));
         
+        AccountStatus previousStatus = account.getStatus();
         account.setStatus(AccountStatus.SUSPENDED);
         accountRepository.save(account);
+        customerSummaryService.accountMoved(account, account.getCurrency(), previousStatus);
+        alertService.statusChanged(account, previousStatus);
+        accountCache.evictAfterCommit(accountId);
         
-        //publishAccountEvent("ACCOUNT_SUSPENDED", account);
+        outboxService.publishAccountEvent("ACCOUNT_SUSPENDED", account);
     }
     
     public void activateAccount(Long accountId) {
         Account account = accountRepository.findById(accountId)
             .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + accountId));
         
+        AccountStatus previousStatus = account.getStatus();
         account.setStatus(AccountStatus.ACTIVE);
         accountRepository.save(account);
+        customerSummaryService.accountMoved(account, account.getCurrency(), previousStatus);
+        alertService.statusChanged(account, previousStatus);
+        accountCache.evictAfterCommit(accountId);
         
-        //publishAccountEvent("ACCOUNT_ACTIVATED", account);
+        outboxService.publishAccountEvent("ACCOUNT_ACTIVATED", account);
     }
     
+    /**
+     * Solde historique, reconstitué depuis le journal des variations.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getAccountBalance(Long accountId, LocalDateTime asOf) {
+        if (asOf == null) {
+            return getAccountBalance(accountId);
+        }
+        return balanceJournalService.getBalanceAsOf(accountId, asOf);
+    }
+
+    @Transactional(readOnly = true)
     public BigDecimal getAccountBalance(Long accountId) {
-        Account account = accountRepository.findById(accountId)
-            .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + accountId));
-        
-        return account.getBalance();
+        if (hotAccountService.isHot(accountId)) {
+            // Compte chaud : solde et crédits pas encore repliés lus ensemble, sans le cache
+            return hotAccountService.balanceWithPending(accountId)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + accountId));
+        }
+
+        AccountResponse cached = accountCache.getIfPresent(accountId);
+        return cached != null
+            ? cached.getBalance()
+            // Une seule colonne lue, sans hydrater l'entité
+            : accountRepository.findBalanceById(accountId)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + accountId));
     }
     
     public void updateBalance(Long accountId, BigDecimal newBalance) {
+        updateBalance(accountId, newBalance, null);
+    }
+
+    /**
+     * @param expectedVersion version attendue (If-Match), ou null pour ne pas la vérifier
+     */
+    public void updateBalance(Long accountId, BigDecimal newBalance, Long expectedVersion) {
+        long foldedVersions = 0;
+        if (hotAccountService.isHot(accountId) && hotAccountService.fold(accountId).signum() != 0) {
+            // Le nouveau solde remplace aussi les crédits en attente ; le repliement a incrémenté la version
+            foldedVersions = 1;
+        }
+
         Account account = accountRepository.findById(accountId)
             .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + accountId));
+        requireVersion(account, expectedVersion, foldedVersions);
         
-        BigDecimal minAllowedBalance = account.getOverdraftLimit() != null 
-            ? account.getOverdraftLimit().negate() 
-            : BigDecimal.ZERO;
-        
-        if (newBalance.compareTo(minAllowedBalance) < 0) {
+        if (!isWithinOverdraftLimit(account, newBalance)) {
             throw new RuntimeException("Insufficient funds. Balance would exceed overdraft limit");
         }
         
+        BigDecimal previousBalance = account.getBalance();
         account.setBalance(newBalance);
         accountRepository.save(account);
+        customerSummaryService.balanceChanged(account, newBalance.subtract(previousBalance));
+        balanceJournalService.record(accountId, newBalance.subtract(previousBalance), BalanceEntryType.ADJUSTMENT);
+        alertService.balanceChanged(account, newBalance.subtract(previousBalance));
+        accountCache.evictAfterCommit(accountId);
         
-        //publishBalanceUpdateEvent(account);
+        outboxService.publishBalanceUpdateEvent(account);
     }
 
-    private AccountResponse mapToResponse(Account account) {
-        AccountResponse response = new AccountResponse();
-        response.setId(account.getId());
-        response.setAccountNumber(account.getAccountNumber());
-        response.setCustomerId(account.getCustomerId());
-        response.setAccountType(account.getAccountType());
-        response.setStatus(account.getStatus());
-        response.setBalance(account.getBalance());
-        response.setOverdraftLimit(account.getOverdraftLimit());
-        response.setCurrency(account.getCurrency());
-        response.setCreatedAt(account.getCreatedAt());
-        response.setUpdatedAt(account.getUpdatedAt());
-        return response;
+    public void creditAccount(Long accountId, BigDecimal amount) {
+        requirePositiveAmount(amount);
+
+        if (hotAccountService.tryCredit(accountId, amount)) {
+            balanceJournalService.record(accountId, amount, BalanceEntryType.CREDIT);
+            // Solde et événement mis à jour par l'agrégateur au prochain repliement
+            return;
+        }
+
+        int updated = accountRepository.creditBalance(accountId, amount, LocalDateTime.now());
+        if (updated == 0) {
+            throw rejectedPosting(accountId);
+        }
+        balanceJournalService.record(accountId, amount, BalanceEntryType.CREDIT);
+        accountCache.evictAfterCommit(accountId);
+        publishBalanceUpdate(accountId, amount);
     }
-    
-    /*private void publishAccountEvent(String eventType, Account account) {
-        AccountEvent event = new AccountEvent();
-        event.setEventType(eventType);
-        event.setAccountId(account.getId());
-        event.setAccountNumber(account.getAccountNumber());
-        event.setCustomerId(account.getCustomerId());
-        event.setAccountType(account.getAccountType().toString());
-        event.setBalance(account.getBalance());
-        event.setTimestamp(java.time.LocalDateTime.now());
-        
-        kafkaTemplate.send("account-events", event);
+
+    public void debitAccount(Long accountId, BigDecimal amount) {
+        requirePositiveAmount(amount);
+
+        boolean applied = hotAccountService.isHot(accountId)
+            ? hotAccountService.debit(accountId, amount)
+            : accountRepository.debitBalance(accountId, amount, LocalDateTime.now()) > 0;
+        if (!applied) {
+            throw rejectedPosting(accountId);
+        }
+        balanceJournalService.record(accountId, amount.negate(), BalanceEntryType.DEBIT);
+        accountCache.evictAfterCommit(accountId);
+        publishBalanceUpdate(accountId, amount.negate());
     }
-    
-    private void publishBalanceUpdateEvent(Account account) {
-        BalanceUpdateEvent event = new BalanceUpdateEvent();
-        event.setAccountId(account.getId());
-        event.setAccountNumber(account.getAccountNumber());
-        event.setNewBalance(account.getBalance());
-        event.setTimestamp(java.time.LocalDateTime.now());
-        
-        kafkaTemplate.send("balance-updates", event);
-    }*/
-}
\ No newline at end of file
+
+    public List<CacheStatsResponse> getCacheStats() {
+        return accountCache.stats();
+    }
+
+    private String encodeCursor(Long customerId, Long lastId) {
+        String raw = customerId + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long decodeCursor(Long customerId, String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0 || !raw.substring(0, separator).equals(String.valueOf(customerId))) {
+                throw new IllegalArgumentException("Cursor does not belong to customer " + customerId);
+            }
+            return Long.parseLong(raw.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException et erreurs Base64 sont aussi des IllegalArgumentException
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private void requirePositiveAmount(BigDecimal amount) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+    }
+
+    /**
+     * L'UPDATE conditionnel n'a touché aucune ligne : on ne relit que le statut
+     * pour distinguer compte inexistant, compte inactif et fonds insuffisants.
+     */
+    private RuntimeException rejectedPosting(Long accountId) {
+        AccountStatus status = accountRepository.findStatusById(accountId)
+            .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + accountId));
+
+        if (status != AccountStatus.ACTIVE) {
+            return new RuntimeException("Account is not active: " + status);
+        }
+        return new RuntimeException("Insufficient funds. Balance would exceed overdraft limit");
+    }
+
+    private void requireVersion(Account account, Long expectedVersion, long foldedVersions) {
+        if (expectedVersion != null && account.getVersion() != expectedVersion + foldedVersions) {
+            throw new PreconditionFailedException(account.getId(), expectedVersion, account.getVersion() - foldedVersions);
+        }
+    }
+
+    private static boolean isWithinOverdraftLimit(Account account, BigDecimal newBalance) {
+        BigDecimal minAllowedBalance = account.getOverdraftLimit() != null 
+            ? account.getOverdraftLimit().negate() 
+            : BigDecimal.ZERO;
+
+        return newBalance.compareTo(minAllowedBalance) >= 0;
+    }
+
+    private void publishBalanceUpdate(Long accountId, BigDecimal delta) {
+        // L'UPDATE a vidé le contexte de persistance : relecture du solde après écriture
+        accountRepository.findById(accountId).ifPresent(account -> {
+            outboxService.publishBalanceUpdateEvent(account);
+            customerSummaryService.balanceChanged(account, delta);
+            alertService.balanceChanged(account, delta);
+        });
+    }
+}
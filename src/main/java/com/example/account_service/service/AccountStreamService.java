@@ -0,0 +1,226 @@
+package com.example.account_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diffusion SSE des événements de compte validés, aux abonnés d'un ensemble de comptes ou d'un client.
+ *
+ * Les événements arrivent après commit (voir OutboxService) et sont déposés dans le tampon de chaque
+ * abonné concerné, sans jamais bloquer la transaction. Le tampon est indexé par compte et par type
+ * d'événement : tant qu'un abonné lent n'a pas reçu une mise à jour, la suivante la remplace.
+ * Sa taille est bornée ; au-delà, les entrées les plus anciennes sont abandonnées.
+ *
+ * Les envois se font sur des threads virtuels, une vidange à la fois par abonné.
+ */
+@Slf4j
+@Service
+public class AccountStreamService {
+
+    static final int MAX_SUBSCRIBED_ACCOUNTS = 1000;
+
+    public record StreamEvent(long accountId, Long customerId, String eventType, String payload) {
+    }
+
+    private final Map<Long, Set<Subscriber>> byAccount = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<Subscriber>> byCustomer = new ConcurrentHashMap<>();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final long timeoutMillis;
+
+    private final int bufferSize;
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    public AccountStreamService(@Value("${account.stream.timeout:30m}") Duration timeout,
+                                @Value("${account.stream.buffer-size:256}") int bufferSize) {
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = bufferSize;
+    }
+
+    public SseEmitter subscribe(Collection<Long> accountIds, Long customerId) {
+        Set<Long> accounts = accountIds != null ? new LinkedHashSet<>(accountIds) : Set.of();
+        if (accounts.isEmpty() && customerId == null) {
+            throw new IllegalArgumentException("Subscribe to at least one account ID or a customer ID");
+        }
+        if (accounts.size() > MAX_SUBSCRIBED_ACCOUNTS) {
+            throw new IllegalArgumentException("A subscription cannot cover more than " + MAX_SUBSCRIBED_ACCOUNTS + " accounts");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, accounts, customerId);
+        subscribers.add(subscriber);
+        accounts.forEach(id -> byAccount.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(subscriber));
+        if (customerId != null) {
+            byCustomer.computeIfAbsent(customerId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Appelé après commit ; ne fait que remplir des tampons en mémoire.
+     */
+    public void dispatch(List<StreamEvent> events) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (StreamEvent event : events) {
+            Set<Subscriber> accountSubscribers = byAccount.get(event.accountId());
+            if (accountSubscribers != null) {
+                accountSubscribers.forEach(subscriber -> subscriber.offer(event));
+            }
+            Set<Subscriber> customerSubscribers = event.customerId() != null ? byCustomer.get(event.customerId()) : null;
+            if (customerSubscribers != null) {
+                customerSubscribers.stream()
+                        // Abonné à la fois au compte et au client : un seul exemplaire
+                        .filter(subscriber -> accountSubscribers == null || !accountSubscribers.contains(subscriber))
+                        .forEach(subscriber -> subscriber.offer(event));
+            }
+        }
+    }
+
+    // Détecte les connexions mortes même sans activité sur les comptes suivis
+    @Scheduled(fixedDelayString = "${account.stream.heartbeat-interval:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            senders.execute(subscriber::heartbeat);
+        }
+    }
+
+    public Map<String, Long> stats() {
+        return Map.of("subscribers", (long) subscribers.size(), "coalesced", coalesced.get(), "dropped", dropped.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriber.accountIds.forEach(id -> byAccount.computeIfPresent(id, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        }));
+        if (subscriber.customerId != null) {
+            byCustomer.computeIfPresent(subscriber.customerId, (key, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Set<Long> accountIds;
+
+        private final Long customerId;
+
+        // Dernier événement non envoyé par (compte, type), dans l'ordre d'arrivée
+        private final LinkedHashMap<String, StreamEvent> pending = new LinkedHashMap<>();
+
+        private boolean draining;
+
+        Subscriber(SseEmitter emitter, Set<Long> accountIds, Long customerId) {
+            this.emitter = emitter;
+            this.accountIds = accountIds;
+            this.customerId = customerId;
+        }
+
+        void offer(StreamEvent event) {
+            boolean startDrain;
+            synchronized (this) {
+                String key = event.accountId() + ":" + event.eventType();
+                if (pending.remove(key) != null) {
+                    coalesced.incrementAndGet();
+                } else if (pending.size() >= bufferSize) {
+                    Iterator<String> oldest = pending.keySet().iterator();
+                    oldest.next();
+                    oldest.remove();
+                    dropped.incrementAndGet();
+                }
+                pending.put(key, event);
+
+                startDrain = !draining;
+                draining = true;
+            }
+            if (startDrain) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<StreamEvent> batch;
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                }
+                try {
+                    for (StreamEvent event : batch) {
+                        emitter.send(SseEmitter.event()
+                                .name(event.eventType())
+                                .data(event.payload(), MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Stream subscriber disconnected: {}", e.getMessage());
+                    synchronized (this) {
+                        pending.clear();
+                        draining = false;
+                    }
+                    unsubscribe(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        void heartbeat() {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.AccountAlertResponse;
+import com.example.account_service.entity.Account;
+import com.example.account_service.entity.AccountAlertRule;
+import com.example.account_service.entity.AccountStatus;
+import com.example.account_service.entity.AlertType;
+import com.example.account_service.repository.AccountAlertRepository;
+import com.example.account_service.repository.AccountAlertRuleRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moteur d'alertes incrémental : les règles sont évaluées pour un compte au moment où son solde
+ * ou son statut change, jamais par balayage de la table.
+ *
+ * Les règles propres à un compte sont indexées en mémoire par compte et par type, les autres
+ * comptes utilisant les règles par défaut (account.alerts.*). Les alertes actives sont aussi
+ * connues en mémoire : une alerte déjà active n'est pas recréée, et elle est désactivée quand
+ * la condition disparaît. Les décisions sont mises en file après le commit, puis écrites par lots.
+ *
+ * Les autres instances modifient aussi les règles et les alertes : les deux index sont rechargés
+ * depuis la base à intervalle régulier (account.alerts.refresh-interval), ce qui borne le délai
+ * avant qu'une règle modifiée ou une alerte levée ailleurs soit prise en compte ici.
+ */
+@Slf4j
+@Service
+public class AlertService {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final int FLUSH_BATCH_SIZE = 1000;
+
+    // Index unique partiel uk_account_alerts_active : une autre instance a pu lever la même alerte
+    private static final String RAISE_SQL =
+            "INSERT INTO account_alerts (account_id, alert_type, message, is_active, created_at) " +
+            "VALUES (?, ?, ?, true, ?) " +
+            "ON CONFLICT (account_id, alert_type) WHERE is_active DO NOTHING";
+
+    private static final String CLEAR_SQL =
+            "UPDATE account_alerts SET is_active = false WHERE account_id = ? AND alert_type = ? AND is_active";
+
+    record Rule(boolean enabled, BigDecimal threshold) {
+    }
+
+    record AlertCommand(long accountId, AlertType alertType, boolean raise, String message, LocalDateTime createdAt) {
+    }
+
+    private final AccountAlertRepository accountAlertRepository;
+
+    private final AccountAlertRuleRepository accountAlertRuleRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<AlertType, Rule> defaultRules = new EnumMap<>(AlertType.class);
+
+    // Index des règles par compte, puis par type ; remplacé à chaque rechargement
+    private volatile Map<Long, Map<AlertType, Rule>> accountRules = new ConcurrentHashMap<>();
+
+    // Alertes actives, codées accountId * 8 + type ; remplacé à chaque rechargement
+    private volatile Set<Long> activeAlerts = ConcurrentHashMap.newKeySet();
+
+    private final BlockingQueue<AlertCommand> pending;
+
+    public AlertService(AccountAlertRepository accountAlertRepository,
+                        AccountAlertRuleRepository accountAlertRuleRepository,
+                        JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${account.alerts.low-balance:100}") BigDecimal lowBalance,
+                        @Value("${account.alerts.high-balance:0}") BigDecimal highBalance,
+                        @Value("${account.alerts.large-transaction:10000}") BigDecimal largeTransaction,
+                        @Value("${account.alerts.queue-capacity:100000}") int queueCapacity) {
+        this.accountAlertRepository = accountAlertRepository;
+        this.accountAlertRuleRepository = accountAlertRuleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+
+        // Un seuil à 0 désactive la règle par défaut
+        defaultRules.put(AlertType.LOW_BALANCE, new Rule(lowBalance.signum() > 0, lowBalance));
+        defaultRules.put(AlertType.HIGH_BALANCE, new Rule(highBalance.signum() > 0, highBalance));
+        defaultRules.put(AlertType.LARGE_TRANSACTION, new Rule(largeTransaction.signum() > 0, largeTransaction));
+        defaultRules.put(AlertType.OVERDRAFT, new Rule(true, BigDecimal.ZERO));
+        defaultRules.put(AlertType.SECURITY, new Rule(true, null));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        reload();
+        log.info("Alert index loaded: {} accounts with custom rules, {} active alerts",
+                accountRules.size(), activeAlerts.size());
+    }
+
+    /**
+     * Recharge les règles et les alertes actives depuis la base. Les décisions en file sont écrites
+     * avant : le rechargement ne les annule pas.
+     */
+    @Scheduled(fixedDelayString = "${account.alerts.refresh-interval:30000}",
+               initialDelayString = "${account.alerts.refresh-interval:30000}")
+    public void reload() {
+        flush();
+
+        Map<Long, Map<AlertType, Rule>> rules = new ConcurrentHashMap<>();
+        for (AccountAlertRule rule : accountAlertRuleRepository.findAll()) {
+            indexRule(rules, rule);
+        }
+        Set<Long> active = ConcurrentHashMap.newKeySet();
+        jdbcTemplate.query("SELECT account_id, alert_type FROM account_alerts WHERE is_active", resultSet -> {
+            active.add(key(resultSet.getLong(1), AlertType.valueOf(resultSet.getString(2))));
+        });
+
+        accountRules = rules;
+        activeAlerts = active;
+    }
+
+    /**
+     * Le solde d'un compte vient de changer de {@code delta} (null si le montant de l'opération
+     * n'a pas de sens, par exemple un repliement de sous-soldes).
+     */
+    public void balanceChanged(Account account, BigDecimal delta) {
+        List<AlertCommand> commands = new ArrayList<>(2);
+        evaluateBalance(account, delta, commands);
+        enqueueAfterCommit(commands);
+    }
+
+    public void balancesChanged(Collection<Account> accounts, Map<Long, BigDecimal> deltasByAccountId) {
+        List<AlertCommand> commands = new ArrayList<>();
+        for (Account account : accounts) {
+            evaluateBalance(account, deltasByAccountId.get(account.getId()), commands);
+        }
+        enqueueAfterCommit(commands);
+    }
+
+    /**
+     * Opération dont le solde résultant n'est pas encore connu (crédit d'un compte chaud) :
+     * seule la règle de montant s'applique.
+     */
+    public void transactionRecorded(Long accountId, BigDecimal amount) {
+        List<AlertCommand> commands = new ArrayList<>(1);
+        evaluateLargeTransaction(accountId, amount, commands);
+        enqueueAfterCommit(commands);
+    }
+
+    public void statusChanged(Account account, AccountStatus previousStatus) {
+        if (account.getStatus() == previousStatus) {
+            return;
+        }
+
+        List<AlertCommand> commands = new ArrayList<>();
+        long accountId = account.getId();
+        if (account.getStatus() == AccountStatus.CLOSED) {
+            // Un compte fermé n'a plus d'alerte active
+            for (AlertType alertType : AlertType.values()) {
+                update(accountId, alertType, false, null, commands);
+            }
+        } else if (rule(accountId, AlertType.SECURITY).enabled()) {
+            update(accountId, AlertType.SECURITY, account.getStatus() == AccountStatus.SUSPENDED,
+                    "Account suspended (was " + previousStatus + ")", commands);
+        }
+        enqueueAfterCommit(commands);
+    }
+
+    @Transactional
+    public void setRule(Long accountId, AlertType alertType, BigDecimal threshold, boolean enabled) {
+        AccountAlertRule rule = accountAlertRuleRepository.findByAccountIdAndAlertType(accountId, alertType)
+                .orElseGet(AccountAlertRule::new);
+        rule.setAccountId(accountId);
+        rule.setAlertType(alertType);
+        rule.setThreshold(threshold);
+        rule.setEnabled(enabled);
+        accountAlertRuleRepository.save(rule);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                indexRule(accountRules, rule);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccountAlertResponse> getActiveAlerts(Long accountId) {
+        return accountAlertRepository.findActiveByAccountId(accountId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccountAlertResponse> getActiveAlerts(AlertType alertType, long afterId, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return accountAlertRepository.findActiveAfter(alertType, afterId, Limit.of(size));
+    }
+
+    @Transactional
+    public AccountAlertResponse acknowledge(Long alertId) {
+        AccountAlertResponse alert = accountAlertRepository.findResponseById(alertId)
+                .orElseThrow(() -> new EntityNotFoundException("Alert not found with ID: " + alertId));
+        if (accountAlertRepository.deactivate(alertId) == 1) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    activeAlerts.remove(key(alert.getAccountId(), alert.getAlertType()));
+                }
+            });
+        }
+        alert.setActive(false);
+        return alert;
+    }
+
+    /**
+     * Écrit les décisions en attente par lots JDBC, dans l'ordre où elles ont été prises.
+     * Exclusif : appelé aussi par le rechargement, qui ne doit pas réordonner les lots.
+     */
+    @Scheduled(fixedDelayString = "${account.alerts.flush-interval:500}")
+    public synchronized void flush() {
+        List<AlertCommand> batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+        while (pending.drainTo(batch, FLUSH_BATCH_SIZE) > 0) {
+            List<AlertCommand> commands = batch;
+            transactionTemplate.executeWithoutResult(status -> write(commands));
+            batch = new ArrayList<>(FLUSH_BATCH_SIZE);
+        }
+    }
+
+    private void write(List<AlertCommand> commands) {
+        // Lot écrit séquentiellement par groupes homogènes pour préserver l'ordre levée/levée-fin
+        int start = 0;
+        while (start < commands.size()) {
+            boolean raise = commands.get(start).raise();
+            int end = start;
+            while (end < commands.size() && commands.get(end).raise() == raise) {
+                end++;
+            }
+            List<AlertCommand> group = commands.subList(start, end);
+            if (raise) {
+                jdbcTemplate.batchUpdate(RAISE_SQL, group, group.size(), (statement, command) -> {
+                    statement.setLong(1, command.accountId());
+                    statement.setString(2, command.alertType().name());
+                    statement.setString(3, command.message());
+                    statement.setTimestamp(4, Timestamp.valueOf(command.createdAt()));
+                });
+            } else {
+                jdbcTemplate.batchUpdate(CLEAR_SQL, group, group.size(), (statement, command) -> {
+                    statement.setLong(1, command.accountId());
+                    statement.setString(2, command.alertType().name());
+                });
+            }
+            start = end;
+        }
+    }
+
+    private void evaluateBalance(Account account, BigDecimal delta, List<AlertCommand> commands) {
+        long accountId = account.getId();
+        BigDecimal balance = account.getBalance();
+
+        Rule low = rule(accountId, AlertType.LOW_BALANCE);
+        if (low.enabled()) {
+            update(accountId, AlertType.LOW_BALANCE, balance.compareTo(low.threshold()) < 0,
+                    "Balance " + balance + " below " + low.threshold(), commands);
+        }
+        Rule high = rule(accountId, AlertType.HIGH_BALANCE);
+        if (high.enabled()) {
+            update(accountId, AlertType.HIGH_BALANCE, balance.compareTo(high.threshold()) > 0,
+                    "Balance " + balance + " above " + high.threshold(), commands);
+        }
+        if (rule(accountId, AlertType.OVERDRAFT).enabled()) {
+            update(accountId, AlertType.OVERDRAFT, balance.signum() < 0,
+                    "Account overdrawn: balance " + balance, commands);
+        }
+        if (delta != null) {
+            evaluateLargeTransaction(accountId, delta, commands);
+        }
+    }
+
+    // Événement ponctuel : levée si aucune alerte de ce type n'est active, jamais levée-fin automatique
+    private void evaluateLargeTransaction(long accountId, BigDecimal amount, List<AlertCommand> commands) {
+        Rule large = rule(accountId, AlertType.LARGE_TRANSACTION);
+        if (large.enabled() && amount.abs().compareTo(large.threshold()) >= 0) {
+            update(accountId, AlertType.LARGE_TRANSACTION, true, "Large transaction of " + amount, commands);
+        }
+    }
+
+    private void update(long accountId, AlertType alertType, boolean conditionMet, String message,
+                        List<AlertCommand> commands) {
+        boolean active = activeAlerts.contains(key(accountId, alertType));
+        if (conditionMet != active) {
+            commands.add(new AlertCommand(accountId, alertType, conditionMet, message, LocalDateTime.now()));
+        }
+    }
+
+    private void enqueueAfterCommit(List<AlertCommand> commands) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(commands);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(commands);
+            }
+        });
+    }
+
+    private void enqueue(List<AlertCommand> commands) {
+        Set<Long> active = activeAlerts;
+        for (AlertCommand command : commands) {
+            long key = key(command.accountId(), command.alertType());
+            // Déjà décidé par une transaction concurrente ; sinon l'index n'est mis à jour qu'une fois
+            // la décision en file, pour qu'une décision abandonnée soit reprise au changement suivant.
+            // Deux levées concurrentes restent sans doublon grâce à l'index unique partiel (RAISE_SQL).
+            if (active.contains(key) == command.raise()) {
+                continue;
+            }
+            if (!pending.offer(command)) {
+                log.warn("Alert queue full, dropping {} alert for account {}", command.alertType(), command.accountId());
+                continue;
+            }
+            if (command.raise()) {
+                active.add(key);
+            } else {
+                active.remove(key);
+            }
+        }
+    }
+
+    private Rule rule(long accountId, AlertType alertType) {
+        Map<AlertType, Rule> rules = accountRules.get(accountId);
+        Rule rule = rules != null ? rules.get(alertType) : null;
+        return rule != null ? rule : defaultRules.get(alertType);
+    }
+
+    private void indexRule(Map<Long, Map<AlertType, Rule>> index, AccountAlertRule rule) {
+        Rule defaultRule = defaultRules.get(rule.getAlertType());
+        BigDecimal threshold = rule.getThreshold() != null ? rule.getThreshold() : defaultRule.threshold();
+        boolean enabled = rule.isEnabled() && (threshold != null || rule.getAlertType() == AlertType.SECURITY);
+        index.computeIfAbsent(rule.getAccountId(), id -> new ConcurrentHashMap<>())
+                .put(rule.getAlertType(), new Rule(enabled, threshold));
+    }
+
+    private static long key(long accountId, AlertType alertType) {
+        return accountId * 8 + alertType.ordinal();
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.BalancePosting;
+import com.example.account_service.dto.BalancePostingResult;
+import com.example.account_service.entity.Account;
+import com.example.account_service.entity.AccountStatus;
+import com.example.account_service.entity.BalanceEntryType;
+import com.example.account_service.repository.AccountRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Application en masse d'écritures de solde (fichiers de règlement de fin de journée).
+ *
+ * Les écritures sont triées par ID de compte puis appliquées par tranches, chaque tranche
+ * dans sa propre transaction et en un seul batch JDBC. Le tri garantit que deux batches
+ * concurrents verrouillent les lignes dans le même ordre et ne peuvent donc pas se bloquer
+ * mutuellement.
+ *
+ * Les écritures d'un compte chaud passent par {@link HotAccountService} comme les crédits et
+ * débits unitaires : crédits sur un sous-solde, débits contrôlés sur le solde et les sous-soldes.
+ */
+@Service
+@AllArgsConstructor
+public class BalanceBatchService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    static final int MAX_POSTINGS = 250_000;
+
+    // Même garde que AccountRepository.debitBalance : un crédit est toujours accepté,
+    // un débit doit rester dans la limite de découvert
+    private static final String POSTING_SQL =
+            "UPDATE accounts SET balance = balance + ?, updated_at = ?, version = version + 1 " +
+            "WHERE id = ? AND status = 'ACTIVE' " +
+            "AND (? >= 0 OR balance + ? + COALESCE(overdraft_limit, 0) >= 0)";
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private AccountRepository accountRepository;
+
+    private AccountCache accountCache;
+
+    private OutboxService outboxService;
+
+    private CustomerSummaryService customerSummaryService;
+
+    private AlertService alertService;
+
+    private BalanceJournalService balanceJournalService;
+
+    private HotAccountService hotAccountService;
+
+    public List<BalancePostingResult> applyPostings(List<BalancePosting> postings) {
+        if (postings == null || postings.isEmpty()) {
+            throw new IllegalArgumentException("At least one posting is required");
+        }
+        if (postings.size() > MAX_POSTINGS) {
+            throw new IllegalArgumentException("A batch cannot contain more than " + MAX_POSTINGS + " postings");
+        }
+
+        BalancePostingResult[] results = new BalancePostingResult[postings.size()];
+        List<Integer> valid = new ArrayList<>(postings.size());
+
+        for (int i = 0; i < postings.size(); i++) {
+            BalancePosting posting = postings.get(i);
+            if (posting == null || posting.getAccountId() == null || posting.getAmount() == null) {
+                results[i] = failure(i, posting, "Account ID and amount are required");
+            } else if (posting.getAmount().signum() == 0) {
+                results[i] = failure(i, posting, "Amount must be non-zero");
+            } else {
+                valid.add(i);
+            }
+        }
+
+        // Tri stable : l'ordre des écritures d'un même compte est conservé
+        valid.sort(Comparator.comparing((Integer i) -> postings.get(i).getAccountId()));
+
+        for (int from = 0; from < valid.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + CHUNK_SIZE, valid.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyChunk(postings, chunk, results, status));
+            } catch (RuntimeException e) {
+                // La tranche entière a été annulée
+                for (Integer i : chunk) {
+                    results[i] = failure(i, postings.get(i), "Batch chunk rolled back: " + e.getMessage());
+                }
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private void applyChunk(List<BalancePosting> postings, List<Integer> chunk, BalancePostingResult[] results,
+                            TransactionStatus status) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Integer> rejected = new ArrayList<>();
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        List<Integer> batched = new ArrayList<>(chunk.size());
+        Long lockedHot = null;
+        for (Integer i : chunk) {
+            BalancePosting posting = postings.get(i);
+            if (!hotAccountService.isHot(posting.getAccountId())) {
+                batched.add(i);
+                continue;
+            }
+
+            // Compte chaud : le batch accumulé est envoyé d'abord, pour garder l'ordre de verrouillage par ID
+            applyBatch(postings, batched, now, status, results, deltas, rejected);
+            batched.clear();
+
+            Long accountId = posting.getAccountId();
+            BigDecimal amount = posting.getAmount();
+            if (!accountId.equals(lockedHot)) {
+                // Ligne du compte avant sous-solde, comme le repliement : sinon un crédit suivi d'un débit
+                // du même compte peut se bloquer avec l'agrégateur
+                hotAccountService.lockAccount(accountId);
+                lockedHot = accountId;
+            }
+            if (amount.signum() > 0) {
+                if (!hotAccountService.tryCredit(accountId, amount)) {
+                    // Mode désactivé ou compte inactif : chemin normal
+                    batched.add(i);
+                    continue;
+                }
+                // Solde, synthèse et événement mis à jour par l'agrégateur au prochain repliement
+                applied(i, posting, results);
+            } else if (hotAccountService.debit(accountId, amount.negate())) {
+                applied(i, posting, results);
+                deltas.merge(accountId, amount, BigDecimal::add);
+            } else {
+                rejected.add(i);
+            }
+        }
+        applyBatch(postings, batched, now, status, results, deltas, rejected);
+
+        if (!rejected.isEmpty()) {
+            classifyRejected(postings, rejected, results);
+        }
+
+        if (!deltas.isEmpty()) {
+            // Un événement par compte et par tranche, avec le solde final
+            List<Account> updated = accountRepository.findAllById(deltas.keySet());
+            outboxService.publishBalanceUpdateEvents(updated);
+            customerSummaryService.balancesChanged(updated, deltas);
+            alertService.balancesChanged(updated, deltas);
+            accountCache.evictAfterCommit(deltas.keySet());
+        }
+    }
+
+    /**
+     * Écritures sur la ligne du compte, en un seul batch JDBC.
+     */
+    private void applyBatch(List<BalancePosting> postings, List<Integer> batched, Timestamp now, TransactionStatus status,
+                            BalancePostingResult[] results, Map<Long, BigDecimal> deltas, List<Integer> rejected) {
+        if (batched.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(batched.size());
+        for (Integer i : batched) {
+            BalancePosting posting = postings.get(i);
+            BigDecimal amount = posting.getAmount();
+            args.add(new Object[]{amount, now, posting.getAccountId(), amount, amount});
+        }
+
+        Object savepoint = status.createSavepoint();
+        int[] counts = jdbcTemplate.batchUpdate(POSTING_SQL, args);
+        if (Arrays.stream(counts).anyMatch(count -> count < 0)) {
+            // SUCCESS_NO_INFO ne dit pas si la garde de l'UPDATE a retenu la ligne : le batch est annulé
+            // et rejoué instruction par instruction, chacune rendant son nombre de lignes
+            status.rollbackToSavepoint(savepoint);
+            counts = args.stream().mapToInt(arguments -> jdbcTemplate.update(POSTING_SQL, arguments)).toArray();
+        }
+        status.releaseSavepoint(savepoint);
+
+        for (int k = 0; k < batched.size(); k++) {
+            int i = batched.get(k);
+            if (counts[k] > 0) {
+                BalancePosting posting = postings.get(i);
+                applied(i, posting, results);
+                deltas.merge(posting.getAccountId(), posting.getAmount(), BigDecimal::add);
+            } else {
+                rejected.add(i);
+            }
+        }
+    }
+
+    private void applied(int index, BalancePosting posting, BalancePostingResult[] results) {
+        results[index] = new BalancePostingResult(index, posting.getAccountId(), posting.getAmount(), true, null);
+        balanceJournalService.record(posting.getAccountId(), posting.getAmount(), BalanceEntryType.POSTING);
+    }
+
+    /**
+     * Une seule requête pour expliquer les écritures refusées de la tranche.
+     */
+    private void classifyRejected(List<BalancePosting> postings, List<Integer> rejected, BalancePostingResult[] results) {
+        List<Long> ids = rejected.stream()
+                .map(i -> postings.get(i).getAccountId())
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<Long, AccountStatus> statuses = new HashMap<>();
+        for (Object[] row : accountRepository.findStatusesByIdIn(ids)) {
+            statuses.put((Long) row[0], (AccountStatus) row[1]);
+        }
+
+        for (Integer i : rejected) {
+            BalancePosting posting = postings.get(i);
+            AccountStatus status = statuses.get(posting.getAccountId());
+            String message;
+            if (status == null) {
+                message = "Account not found with ID: " + posting.getAccountId();
+            } else if (status != AccountStatus.ACTIVE) {
+                message = "Account is not active: " + status;
+            } else {
+                message = "Insufficient funds. Balance would exceed overdraft limit";
+            }
+            results[i] = failure(i, posting, message);
+        }
+    }
+
+    private BalancePostingResult failure(int index, BalancePosting posting, String message) {
+        return new BalancePostingResult(index,
+                posting != null ? posting.getAccountId() : null,
+                posting != null ? posting.getAmount() : null,
+                false, message);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.account_service.service;
+
+import com.example.account_service.entity.BalanceEntryType;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal des variations de solde et instantanés périodiques.
+ *
+ * Les écritures d'une transaction sont accumulées puis insérées en un seul batch JDBC juste avant
+ * le commit : elles sont validées ou annulées avec la modification du solde. La base les date
+ * ({@code clock_timestamp()}) et note la transaction qui les a écrites ({@code tx_id}).
+ *
+ * Un instantané ne dépend pas des horodatages : il reprend l'instantané précédent du compte et lui
+ * ajoute les variations des transactions terminées depuis la coupure précédente, la coupure étant
+ * la plus ancienne transaction encore en cours ({@code pg_snapshot_xmin}). Une transaction longue
+ * validée après une coupure est prise par l'instantané suivant ; le parcours passe par l'index sur
+ * {@code tx_id} et ne relit jamais l'historique complet.
+ */
+@Slf4j
+@Service
+public class BalanceJournalService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO balance_journal (id, account_id, delta, entry_type, recorded_at) " +
+            "VALUES (nextval('balance_journal_seq'), ?, ?, ?, CAST(clock_timestamp() AS timestamp))";
+
+    // Dernier instantané de chaque compte modifié + variations des transactions entre les deux coupures
+    private static final String SNAPSHOT_SQL =
+            "WITH cut AS (SELECT pg_snapshot_xmin(pg_current_snapshot()) AS xid, " +
+            "CAST(clock_timestamp() AS timestamp) AS taken_at, " +
+            "COALESCE((SELECT MAX(cut_xid) FROM balance_snapshots), '0'::xid8) AS previous_xid) " +
+            "INSERT INTO balance_snapshots (id, account_id, balance, as_of, cut_xid) " +
+            "SELECT nextval('balance_snapshots_seq'), j.account_id, " +
+            "COALESCE((SELECT s.balance FROM balance_snapshots s WHERE s.account_id = j.account_id " +
+            "ORDER BY s.as_of DESC LIMIT 1), 0) + SUM(j.delta), MIN(c.taken_at), MIN(c.xid) " +
+            "FROM balance_journal j JOIN cut c ON j.tx_id >= c.previous_xid AND j.tx_id < c.xid " +
+            "GROUP BY j.account_id";
+
+    // Instantané antérieur à la date demandée + variations des transactions qu'il n'inclut pas
+    private static final String BALANCE_AS_OF_SQL =
+            "WITH base AS (SELECT balance, cut_xid FROM balance_snapshots " +
+            "WHERE account_id = ? AND as_of <= ? ORDER BY as_of DESC LIMIT 1) " +
+            "SELECT (SELECT balance FROM base) AS base_balance, " +
+            "COUNT(*) AS entries, COALESCE(SUM(j.delta), 0) AS total FROM balance_journal j " +
+            "WHERE j.account_id = ? AND j.recorded_at <= ? " +
+            "AND j.tx_id >= COALESCE((SELECT cut_xid FROM base), '0'::xid8)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private record Entry(long accountId, BigDecimal delta, BalanceEntryType entryType) {
+    }
+
+    public BalanceJournalService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long accountId, BigDecimal delta, BalanceEntryType entryType) {
+        if (delta.signum() != 0 || entryType == BalanceEntryType.OPENING) {
+            pendingEntries().add(new Entry(accountId, delta, entryType));
+        }
+    }
+
+    /**
+     * Solde à l'instant {@code asOf} : dernier instantané antérieur plus les variations qu'il n'inclut pas.
+     * Refusé avant la première variation du compte (ouverture, ou reprise du compte par la migration V3).
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAsOf(Long accountId, LocalDateTime asOf) {
+        Timestamp until = Timestamp.valueOf(asOf);
+
+        Map<String, Object> result = jdbcTemplate.queryForMap(BALANCE_AS_OF_SQL, accountId, until, accountId, until);
+        BigDecimal base = (BigDecimal) result.get("base_balance");
+        if (base == null && ((Number) result.get("entries")).longValue() == 0) {
+            throw new EntityNotFoundException("No balance history for account " + accountId + " at " + asOf);
+        }
+        return (base != null ? base : BigDecimal.ZERO).add((BigDecimal) result.get("total"));
+    }
+
+    @Scheduled(fixedDelayString = "${account.journal.snapshot-interval:3600000}")
+    public void takeSnapshots() {
+        Integer snapshots = transactionTemplate.execute(status -> jdbcTemplate.update(SNAPSHOT_SQL));
+        log.info("Balance snapshots taken: {} accounts", snapshots);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Entry> pendingEntries() {
+        List<Entry> entries = (List<Entry>) TransactionSynchronizationManager.getResource(this);
+        if (entries == null) {
+            List<Entry> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    flush(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BalanceJournalService.this);
+                }
+            });
+            entries = created;
+        }
+        return entries;
+    }
+
+    private void flush(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (statement, entry) -> {
+            statement.setLong(1, entry.accountId());
+            statement.setBigDecimal(2, entry.delta());
+            statement.setString(3, entry.entryType().name());
+        });
+        entries.clear();
+    }
+}
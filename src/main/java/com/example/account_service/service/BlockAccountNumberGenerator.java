@@ -0,0 +1,90 @@
+package com.example.account_service.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Numéros de compte tirés de plages réservées dans une séquence partagée.
+ *
+ * Chaque instance réserve une plage de {@code blockSize} valeurs en un seul appel à la base,
+ * puis la distribue en mémoire : deux instances ne peuvent donc jamais produire le même numéro.
+ * Format : {@code ACC.} + 12 chiffres + 1 chiffre de contrôle de Luhn (17 caractères).
+ */
+public class BlockAccountNumberGenerator implements AccountNumberGenerator {
+
+    static final String PREFIX = "ACC.";
+
+    static final int DIGITS = 12;
+
+    static final long MAX_VALUE = 999_999_999_999L;
+
+    private final LongSupplier blockReserver;
+
+    private final long blockSize;
+
+    // Pas de synchronized : la réservation d'une plage fait un appel JDBC, qui épinglerait
+    // le thread porteur si l'appelant est un thread virtuel
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long next;
+
+    private long limit;
+
+    /**
+     * @param blockReserver retourne la première valeur d'une nouvelle plage réservée
+     * @param blockSize     nombre de valeurs par plage
+     */
+    public BlockAccountNumberGenerator(LongSupplier blockReserver, long blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.blockReserver = blockReserver;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String nextAccountNumber() {
+        long value;
+        lock.lock();
+        try {
+            if (next == limit) {
+                next = blockReserver.getAsLong();
+                limit = next + blockSize;
+            }
+            value = next++;
+        } finally {
+            lock.unlock();
+        }
+        return format(value);
+    }
+
+    static String format(long value) {
+        if (value < 0 || value > MAX_VALUE) {
+            throw new IllegalStateException("Account number space exhausted: " + value);
+        }
+
+        char[] chars = new char[PREFIX.length() + DIGITS + 1];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+
+        // Chiffres écrits de droite à gauche, le calcul de Luhn se fait au passage
+        int sum = 0;
+        long remaining = value;
+        for (int i = 0; i < DIGITS; i++) {
+            int digit = (int) (remaining % 10);
+            remaining /= 10;
+            chars[PREFIX.length() + DIGITS - 1 - i] = (char) ('0' + digit);
+
+            // Le chiffre de contrôle est à droite : on double les positions paires en partant de 0
+            if (i % 2 == 0) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        chars[chars.length - 1] = (char) ('0' + (10 - sum % 10) % 10);
+
+        return new String(chars);
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.CustomerSummaryResponse;
+import com.example.account_service.entity.Account;
+import com.example.account_service.entity.AccountStatus;
+import com.example.account_service.entity.AccountType;
+import com.example.account_service.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Synthèse du portefeuille d'un client.
+ *
+ * Par défaut la synthèse est calculée par une seule requête groupée sur {@code accounts}.
+ * Avec {@code account.summary.maintained=true}, elle est lue dans {@code customer_account_summary},
+ * tenue à jour par deltas dans la transaction de chaque changement de solde ou de statut.
+ * Les deltas sont appliqués dans l'ordre des clés pour que deux transactions ne se bloquent pas.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerSummaryService {
+
+    private static final String SELECT_SQL =
+            "SELECT currency, account_type, status, account_count, total_balance " +
+            "FROM customer_account_summary WHERE customer_id = ? AND account_count <> 0";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO customer_account_summary (customer_id, currency, account_type, status, account_count, total_balance) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (customer_id, currency, account_type, status) DO UPDATE SET " +
+            "account_count = customer_account_summary.account_count + EXCLUDED.account_count, " +
+            "total_balance = customer_account_summary.total_balance + EXCLUDED.total_balance";
+
+    private static final String REBUILD_SQL =
+            "INSERT INTO customer_account_summary (customer_id, currency, account_type, status, account_count, total_balance) " +
+            "SELECT customer_id, currency, account_type, status, COUNT(*), SUM(balance) FROM accounts " +
+            "GROUP BY customer_id, currency, account_type, status";
+
+    private static final Comparator<SummaryKey> KEY_ORDER = Comparator
+            .comparing(SummaryKey::customerId)
+            .thenComparing(SummaryKey::currency)
+            .thenComparing(SummaryKey::accountType)
+            .thenComparing(SummaryKey::status);
+
+    private final AccountRepository accountRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${account.summary.maintained:false}")
+    private boolean maintained;
+
+    @Value("${account.summary.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Transactional(readOnly = true)
+    public CustomerSummaryResponse getSummary(Long customerId) {
+        List<Object[]> rows = maintained
+                ? jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Object[]{
+                        rs.getString(1),
+                        AccountType.valueOf(rs.getString(2)),
+                        AccountStatus.valueOf(rs.getString(3)),
+                        rs.getLong(4),
+                        rs.getBigDecimal(5)}, customerId)
+                : accountRepository.summarizeByCustomerId(customerId);
+
+        long accountCount = 0;
+        Map<String, BigDecimal> balances = new TreeMap<>();
+        Map<AccountType, Long> byType = new EnumMap<>(AccountType.class);
+        Map<AccountStatus, Long> byStatus = new EnumMap<>(AccountStatus.class);
+
+        for (Object[] row : rows) {
+            String currency = (String) row[0];
+            AccountType accountType = (AccountType) row[1];
+            AccountStatus status = (AccountStatus) row[2];
+            long count = (Long) row[3];
+            BigDecimal total = row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO;
+
+            accountCount += count;
+            // Même périmètre que getTotalBalanceByCustomerId : comptes actifs seulement
+            if (status == AccountStatus.ACTIVE) {
+                balances.merge(currency, total, BigDecimal::add);
+            }
+            byType.merge(accountType, count, Long::sum);
+            byStatus.merge(status, count, Long::sum);
+        }
+
+        return new CustomerSummaryResponse(customerId, accountCount, balances, byType, byStatus);
+    }
+
+    public void accountCreated(Account account) {
+        accountsCreated(List.of(account));
+    }
+
+    public void accountsCreated(Collection<Account> accounts) {
+        if (!maintained) {
+            return;
+        }
+        Map<SummaryKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (Account account : accounts) {
+            add(deltas, SummaryKey.of(account), 1, account.getBalance());
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Le compte a changé de devise ou de statut : il passe d'une ligne de synthèse à une autre.
+     */
+    public void accountMoved(Account account, String previousCurrency, AccountStatus previousStatus) {
+        if (!maintained) {
+            return;
+        }
+        SummaryKey previous = new SummaryKey(account.getCustomerId(), previousCurrency, account.getAccountType(), previousStatus);
+        SummaryKey current = SummaryKey.of(account);
+        if (previous.equals(current)) {
+            return;
+        }
+
+        Map<SummaryKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        add(deltas, previous, -1, account.getBalance().negate());
+        add(deltas, current, 1, account.getBalance());
+        apply(deltas);
+    }
+
+    public void balanceChanged(Account account, BigDecimal delta) {
+        if (maintained && delta.signum() != 0) {
+            Map<SummaryKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+            add(deltas, SummaryKey.of(account), 0, delta);
+            apply(deltas);
+        }
+    }
+
+    public void balancesChanged(Collection<Account> accounts, Map<Long, BigDecimal> deltasByAccountId) {
+        if (!maintained) {
+            return;
+        }
+        Map<SummaryKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (Account account : accounts) {
+            BigDecimal delta = deltasByAccountId.get(account.getId());
+            if (delta != null && delta.signum() != 0) {
+                add(deltas, SummaryKey.of(account), 0, delta);
+            }
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Reconstruit la table de synthèse à partir de {@code accounts}.
+     * À exécuter une fois avant d'activer le mode maintenu sur une base existante.
+     *
+     * Les écritures sur {@code accounts} sont suspendues jusqu'au commit : le verrou attend la fin des
+     * transactions en cours, dont les deltas sont alors remplacés par le recalcul, et les suivantes
+     * appliquent leurs deltas sur la table reconstruite. Aucun delta n'est perdu ni compté deux fois.
+     */
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.execute("LOCK TABLE accounts IN SHARE MODE");
+        jdbcTemplate.update("DELETE FROM customer_account_summary");
+        jdbcTemplate.update(REBUILD_SQL);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (maintained && rebuildOnStartup) {
+            // Appel interne : pas de proxy @Transactional, le verrou et le recalcul exigent une transaction
+            transactionTemplate.executeWithoutResult(status -> rebuild());
+        }
+    }
+
+    private void add(Map<SummaryKey, Delta> deltas, SummaryKey key, long count, BigDecimal balance) {
+        deltas.merge(key, new Delta(count, balance),
+                (a, b) -> new Delta(a.count() + b.count(), a.balance().add(b.balance())));
+    }
+
+    private void apply(Map<SummaryKey, Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> args.add(new Object[]{
+                key.customerId(), key.currency(), key.accountType().name(), key.status().name(),
+                delta.count(), delta.balance()}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+    }
+
+    private record SummaryKey(Long customerId, String currency, AccountType accountType, AccountStatus status) {
+
+        static SummaryKey of(Account account) {
+            return new SummaryKey(account.getCustomerId(), account.getCurrency(), account.getAccountType(), account.getStatus());
+        }
+    }
+
+    private record Delta(long count, BigDecimal balance) {
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.account_service.service;
+
+import com.example.account_service.entity.Account;
+import com.example.account_service.repository.AccountRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Mode "compte chaud" : les crédits d'un compte configuré sont écrits sur l'une de ses N lignes
+ * de sous-solde (account_balance_stripes), choisie au hasard, au lieu de la ligne du compte.
+ * Le débit en écriture croît ainsi avec le nombre de lignes.
+ *
+ * Ordre de verrouillage, identique partout pour éviter les interblocages :
+ * ligne du compte d'abord, lignes de sous-solde ensuite. Les crédits ne verrouillent qu'une
+ * ligne de sous-solde ; les débits et le repliement verrouillent la ligne du compte, puis
+ * relisent les sous-soldes dans une nouvelle instruction (donc à jour).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HotAccountService {
+
+    static final int MAX_STRIPES = 64;
+
+    private static final String CREDIT_STRIPE_SQL =
+            "UPDATE account_balance_stripes s SET amount = amount + ? " +
+            "WHERE s.account_id = ? AND s.stripe = ? " +
+            "AND EXISTS (SELECT 1 FROM accounts a WHERE a.id = s.account_id AND a.status = 'ACTIVE')";
+
+    private static final String PENDING_SQL =
+            "SELECT COALESCE(SUM(amount), 0) FROM account_balance_stripes WHERE account_id = ?";
+
+    // Solde et sous-soldes dans une seule instruction : un seul instantané, une seule source de données
+    private static final String BALANCE_WITH_PENDING_SQL =
+            "SELECT a.balance + COALESCE((SELECT SUM(s.amount) FROM account_balance_stripes s " +
+            "WHERE s.account_id = a.id), 0) FROM accounts a WHERE a.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AccountRepository accountRepository;
+
+    private final AccountCache accountCache;
+
+    private final OutboxService outboxService;
+
+    private final CustomerSummaryService customerSummaryService;
+
+    private final AlertService alertService;
+
+    // Nombre de sous-soldes par compte chaud, relu à chaque cycle de l'agrégateur
+    private volatile Map<Long, Integer> stripesByAccount = Map.of();
+
+    public boolean isHot(Long accountId) {
+        return stripesByAccount.containsKey(accountId);
+    }
+
+    /**
+     * Crédite un sous-solde si le compte est chaud. Retourne false si le crédit doit passer par
+     * la ligne du compte : compte non chaud, mode désactivé entre-temps, ou compte inactif
+     * (le chemin normal produira alors le bon message d'erreur).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryCredit(Long accountId, BigDecimal amount) {
+        Integer stripes = stripesByAccount.get(accountId);
+        if (stripes == null) {
+            return false;
+        }
+
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        if (jdbcTemplate.update(CREDIT_STRIPE_SQL, amount, accountId, stripe) == 0) {
+            return false;
+        }
+        alertService.transactionRecorded(accountId, amount);
+        return true;
+    }
+
+    /**
+     * Débit d'un compte chaud : la règle de découvert porte sur le solde du compte plus les
+     * sous-soldes. Les crédits concurrents non validés sont ignorés, ce qui ne peut que rendre
+     * le contrôle plus strict.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean debit(Long accountId, BigDecimal amount) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT balance, overdraft_limit FROM accounts WHERE id = ? AND status = 'ACTIVE' FOR UPDATE",
+                accountId);
+        if (rows.isEmpty()) {
+            return false;
+        }
+
+        BigDecimal balance = (BigDecimal) rows.get(0).get("balance");
+        BigDecimal overdraftLimit = (BigDecimal) rows.get(0).get("overdraft_limit");
+        BigDecimal available = balance.add(pendingCredits(accountId))
+                .add(overdraftLimit != null ? overdraftLimit : BigDecimal.ZERO);
+        if (available.compareTo(amount) < 0) {
+            return false;
+        }
+
+        jdbcTemplate.update(
+                "UPDATE accounts SET balance = balance - ?, updated_at = ?, version = version + 1 WHERE id = ?",
+                amount, Timestamp.valueOf(LocalDateTime.now()), accountId);
+        return true;
+    }
+
+    /**
+     * Verrouille la ligne du compte avant des écritures mêlant crédits et débits dans une même
+     * transaction : un crédit tenant un sous-solde ne doit pas précéder le verrou du compte.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockAccount(Long accountId) {
+        jdbcTemplate.query("SELECT 1 FROM accounts WHERE id = ? FOR UPDATE", resultSet -> null, accountId);
+    }
+
+    /**
+     * Crédits en attente de repliement ; zéro sans requête pour un compte non chaud.
+     */
+    public BigDecimal pendingCredits(Long accountId) {
+        if (!isHot(accountId)) {
+            return BigDecimal.ZERO;
+        }
+        return jdbcTemplate.queryForObject(PENDING_SQL, BigDecimal.class, accountId);
+    }
+
+    /**
+     * Solde disponible d'un compte chaud, crédits en attente compris ; vide si le compte n'existe pas.
+     * Deux lectures séparées (cache ou réplica d'un côté, sous-soldes de l'autre) pourraient encadrer
+     * un repliement et compter le montant replié deux fois, ou pas du tout.
+     */
+    public Optional<BigDecimal> balanceWithPending(Long accountId) {
+        return jdbcTemplate.queryForList(BALANCE_WITH_PENDING_SQL, BigDecimal.class, accountId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Replie les sous-soldes dans {@code Account.balance}, dans la transaction courante.
+     * La synthèse client et l'événement de solde sont produits ici, une fois par repliement.
+     * Les lignes du compte et de ses sous-soldes restent verrouillées jusqu'au commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal fold(Long accountId) {
+        Integer locked = jdbcTemplate.query("SELECT 1 FROM accounts WHERE id = ? FOR UPDATE",
+                resultSet -> resultSet.next() ? 1 : null, accountId);
+        if (locked == null) {
+            throw new EntityNotFoundException("Account not found with ID: " + accountId);
+        }
+
+        // Toutes les lignes de sous-solde sont verrouillées, y compris celles à zéro : un crédit en cours
+        // est attendu puis relu, un crédit suivant attend le commit. On soustrait exactement ce qui a été lu.
+        List<Object[]> stripes = jdbcTemplate.query(
+                "SELECT id, amount FROM account_balance_stripes WHERE account_id = ? ORDER BY id FOR UPDATE",
+                (resultSet, rowNum) -> new Object[]{resultSet.getLong(1), resultSet.getBigDecimal(2)}, accountId);
+        List<Object[]> nonZero = stripes.stream()
+                .filter(stripe -> ((BigDecimal) stripe[1]).signum() != 0)
+                .map(stripe -> new Object[]{stripe[1], stripe[0]})
+                .toList();
+        if (nonZero.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+
+        BigDecimal folded = nonZero.stream().map(stripe -> (BigDecimal) stripe[0]).reduce(BigDecimal.ZERO, BigDecimal::add);
+        jdbcTemplate.batchUpdate("UPDATE account_balance_stripes SET amount = amount - ? WHERE id = ?", nonZero);
+        jdbcTemplate.update(
+                "UPDATE accounts SET balance = balance + ?, updated_at = ?, version = version + 1 WHERE id = ?",
+                folded, Timestamp.valueOf(LocalDateTime.now()), accountId);
+
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new EntityNotFoundException("Account not found with ID: " + accountId));
+        customerSummaryService.balanceChanged(account, folded);
+        // Le montant replié cumule plusieurs crédits : seules les règles de solde s'appliquent
+        alertService.balanceChanged(account, null);
+        outboxService.publishBalanceUpdateEvent(account);
+        accountCache.evictAfterCommit(accountId);
+        return folded;
+    }
+
+    /**
+     * Active (stripes > 0) ou désactive (stripes = 0) le mode chaud d'un compte.
+     * Les crédits en attente sont repliés avant de recréer les sous-soldes.
+     */
+    @Transactional
+    public void configure(Long accountId, int stripes) {
+        if (stripes < 0 || stripes > MAX_STRIPES) {
+            throw new IllegalArgumentException("Stripe count must be between 0 and " + MAX_STRIPES);
+        }
+
+        // Le repliement garde les sous-soldes verrouillés : aucun crédit ne peut s'y poser avant la
+        // suppression. Un crédit en attente de verrou ne trouve plus sa ligne et passe par le compte.
+        fold(accountId);
+        jdbcTemplate.update("DELETE FROM account_balance_stripes WHERE account_id = ? AND amount = 0", accountId);
+        if (stripes > 0) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO account_balance_stripes (id, account_id, stripe, amount) " +
+                    "VALUES (nextval('account_balance_stripes_seq'), ?, ?, 0)",
+                    IntStream.range(0, stripes).boxed().toList(), stripes,
+                    (statement, stripe) -> {
+                        statement.setLong(1, accountId);
+                        statement.setInt(2, stripe);
+                    });
+        }
+        log.info("Hot account mode for account {}: {} stripes", accountId, stripes);
+        refreshHotAccounts();
+    }
+
+    /**
+     * Agrégateur : replie chaque compte chaud ayant des crédits en attente, un compte par transaction.
+     */
+    @Scheduled(fixedDelayString = "${account.hot.aggregation-interval:1000}")
+    public void aggregate() {
+        refreshHotAccounts();
+
+        List<Long> pending = jdbcTemplate.queryForList(
+                "SELECT DISTINCT account_id FROM account_balance_stripes WHERE amount <> 0", Long.class);
+        for (Long accountId : pending) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> fold(accountId));
+            } catch (RuntimeException e) {
+                log.warn("Folding hot account {} failed: {}", accountId, e.getMessage());
+            }
+        }
+    }
+
+    private void refreshHotAccounts() {
+        Map<Long, Integer> refreshed = new HashMap<>();
+        jdbcTemplate.query("SELECT account_id, COUNT(*) FROM account_balance_stripes GROUP BY account_id",
+                resultSet -> {
+                    refreshed.put(resultSet.getLong(1), resultSet.getInt(2));
+                });
+        stripesByAccount = Map.copyOf(refreshed);
+    }
+}
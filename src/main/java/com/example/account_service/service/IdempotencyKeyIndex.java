@@ -0,0 +1,116 @@
+package com.example.account_service.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Index mémoire des clés d'idempotence déjà traitées, en tableaux de primitifs.
+ *
+ * Chaque entrée occupe 36 octets répartis dans cinq tableaux (empreinte 128 bits, expiration,
+ * empreinte de la requête, statut HTTP) : aucun objet par clé, donc aucune pression sur le GC
+ * même avec des millions d'entrées. Adressage ouvert à sondage linéaire borné ; quand les
+ * {@link #MAX_PROBE} emplacements candidats sont occupés, l'entrée qui expire le plus tôt est
+ * remplacée. La table durable fait foi : une entrée évincée coûte seulement une lecture en base.
+ */
+class IdempotencyKeyIndex {
+
+    static final int MAX_PROBE = 16;
+
+    private static final int SEGMENTS = 64;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    record Hit(long requestHash, int status) {
+    }
+
+    IdempotencyKeyIndex(int capacity) {
+        int perSegment = Integer.highestOneBit(Math.max(MAX_PROBE, capacity / SEGMENTS - 1) << 1);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    Hit lookup(long keyHigh, long keyLow, long now) {
+        return segment(keyLow).lookup(nonZero(keyHigh), keyLow, now);
+    }
+
+    void put(long keyHigh, long keyLow, long expiresAt, long requestHash, int status) {
+        segment(keyLow).put(nonZero(keyHigh), keyLow, expiresAt, requestHash, status);
+    }
+
+    int capacity() {
+        return SEGMENTS * segments[0].keyHigh.length;
+    }
+
+    private Segment segment(long keyLow) {
+        return segments[(int) (keyLow >>> 58)];
+    }
+
+    // 0 marque un emplacement vide
+    private static long nonZero(long keyHigh) {
+        return keyHigh == 0 ? 1 : keyHigh;
+    }
+
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final long[] keyHigh;
+        private final long[] keyLow;
+        private final long[] expiresAt;
+        private final long[] requestHash;
+        private final int[] status;
+
+        private final int mask;
+
+        Segment(int size) {
+            keyHigh = new long[size];
+            keyLow = new long[size];
+            expiresAt = new long[size];
+            requestHash = new long[size];
+            status = new int[size];
+            mask = size - 1;
+        }
+
+        Hit lookup(long high, long low, long now) {
+            lock.lock();
+            try {
+                int slot = (int) low & mask;
+                for (int i = 0; i < MAX_PROBE; i++, slot = (slot + 1) & mask) {
+                    if (keyHigh[slot] == 0) {
+                        return null;
+                    }
+                    if (keyHigh[slot] == high && keyLow[slot] == low) {
+                        return expiresAt[slot] > now ? new Hit(requestHash[slot], status[slot]) : null;
+                    }
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(long high, long low, long expires, long request, int responseStatus) {
+            lock.lock();
+            try {
+                int slot = (int) low & mask;
+                int victim = slot;
+                for (int i = 0; i < MAX_PROBE; i++, slot = (slot + 1) & mask) {
+                    if (keyHigh[slot] == 0 || (keyHigh[slot] == high && keyLow[slot] == low)) {
+                        victim = slot;
+                        break;
+                    }
+                    if (expiresAt[slot] < expiresAt[victim]) {
+                        victim = slot;
+                    }
+                }
+                keyHigh[victim] = high;
+                keyLow[victim] = low;
+                expiresAt[victim] = expires;
+                requestHash[victim] = request;
+                status[victim] = responseStatus;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.account_service.service;
+
+import com.example.account_service.entity.IdempotencyRecord;
+import com.example.account_service.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Traitement des requêtes portant un en-tête {@code Idempotency-Key}.
+ *
+ * La clé est réservée dans idempotency_keys dans la même transaction que l'opération, et la
+ * réponse y est enregistrée avant le commit : une requête rejouée reçoit la réponse stockée sans
+ * appeler AccountService, et deux requêtes simultanées portant la même clé ne s'exécutent qu'une fois.
+ * Si l'opération échoue, la réservation est annulée avec elle et la clé peut être réutilisée.
+ *
+ * Les réponses validées sont aussi indexées en mémoire ({@link IdempotencyKeyIndex}) : une réponse
+ * sans corps est rejouée sans aucun accès à la base, les autres avec une seule lecture par clé primaire.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final int PURGE_BATCH_SIZE = 10_000;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final HttpServletRequest request;
+
+    private final IdempotencyKeyIndex index;
+
+    private final Duration ttl;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              HttpServletRequest request,
+                              @Value("${account.idempotency.memory-capacity:1048576}") int memoryCapacity,
+                              @Value("${account.idempotency.ttl:24h}") Duration ttl) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.request = request;
+        this.index = new IdempotencyKeyIndex(memoryCapacity);
+        this.ttl = ttl;
+    }
+
+    /**
+     * Exécute {@code action} au plus une fois par clé. Sans clé, l'action est simplement exécutée.
+     *
+     * @param requestFingerprint contenu de la requête : une clé réutilisée avec un autre contenu est refusée (422)
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String operation, Object requestFingerprint,
+                                         Class<T> bodyType, Supplier<ResponseEntity<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        byte[] digest = sha256((caller() + '\n' + operation + '\n' + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+        ByteBuffer key = ByteBuffer.wrap(digest);
+        long keyHigh = key.getLong(0);
+        long keyLow = key.getLong(8);
+        String keyHash = HexFormat.of().formatHex(digest, 0, 16);
+        long requestHash = ByteBuffer.wrap(sha256(serialize(requestFingerprint))).getLong();
+
+        IdempotencyKeyIndex.Hit hit = index.lookup(keyHigh, keyLow, System.currentTimeMillis());
+        if (hit != null) {
+            if (hit.requestHash() != requestHash) {
+                return mismatch(idempotencyKey);
+            }
+            if (bodyType == Void.class) {
+                return ResponseEntity.status(hit.status()).header(REPLAYED_HEADER, "true").build();
+            }
+            Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findById(keyHash);
+            if (stored.isPresent() && stored.get().getResponseStatus() != null) {
+                return replay(stored.get(), bodyType);
+            }
+        }
+
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!claim(keyHash, operation, requestHash, now)) {
+                IdempotencyRecord existing = idempotencyRecordRepository.findById(keyHash).orElse(null);
+                if (existing == null || existing.getResponseStatus() == null) {
+                    return ResponseEntity.status(HttpStatus.CONFLICT).build();
+                }
+                if (existing.getRequestHash() != requestHash) {
+                    return mismatch(idempotencyKey);
+                }
+                return replay(existing, bodyType);
+            }
+
+            ResponseEntity<T> response = action.get();
+            int responseStatus = response.getStatusCode().value();
+            String body = response.getBody() != null ? new String(serialize(response.getBody()), StandardCharsets.UTF_8) : null;
+            idempotencyRecordRepository.complete(keyHash, responseStatus, body);
+
+            long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index.put(keyHigh, keyLow, expiresAt, requestHash, responseStatus);
+                }
+            });
+            return response;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${account.idempotency.purge-interval:60000}")
+    public void purgeExpired() {
+        Integer purged;
+        do {
+            purged = transactionTemplate.execute(status ->
+                    idempotencyRecordRepository.purgeExpired(LocalDateTime.now(), PURGE_BATCH_SIZE));
+        } while (purged != null && purged == PURGE_BATCH_SIZE);
+    }
+
+    // Une clé expirée mais pas encore purgée est libérée puis réservée à nouveau
+    private boolean claim(String keyHash, String operation, long requestHash, LocalDateTime now) {
+        if (idempotencyRecordRepository.claim(keyHash, operation, requestHash, now, now.plus(ttl)) == 1) {
+            return true;
+        }
+        return idempotencyRecordRepository.deleteIfExpired(keyHash, now) == 1
+                && idempotencyRecordRepository.claim(keyHash, operation, requestHash, now, now.plus(ttl)) == 1;
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyRecord stored, Class<T> bodyType) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.getResponseStatus()).header(REPLAYED_HEADER, "true");
+        if (stored.getResponseBody() == null || bodyType == Void.class) {
+            return builder.build();
+        }
+        try {
+            return builder.body(objectMapper.readValue(stored.getResponseBody(), bodyType));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Stored idempotent response cannot be read", e);
+        }
+    }
+
+    private <T> ResponseEntity<T> mismatch(String idempotencyKey) {
+        log.warn("Idempotency-Key {} reused with a different request", idempotencyKey);
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+    }
+
+    // Les clés sont propres à chaque utilisateur : deux clients ne peuvent pas partager une réponse
+    private String caller() {
+        Object userId = request.getAttribute("userId");
+        return userId != null ? userId.toString() : "";
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request cannot be serialized", e);
+        }
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.account_service.service;
+
+import com.example.account_service.entity.OutboxEvent;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publication en mémoire : chaque événement est republié comme événement Spring,
+ * ce qui permet aux tests (et aux consommateurs internes) de l'écouter avec {@code @EventListener}.
+ */
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "account.outbox.publisher", havingValue = "in-process", matchIfMissing = true)
+public class InProcessOutboxPublisher implements OutboxPublisher {
+
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            applicationEventPublisher.publishEvent(event);
+        }
+    }
+}
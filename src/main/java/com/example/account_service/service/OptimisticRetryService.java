@@ -0,0 +1,102 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.ConflictStatsResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Rejoue une opération de service en conflit de version (verrouillage optimiste sur {@code Account}).
+ *
+ * L'opération doit ouvrir sa propre transaction : chaque tentative relit donc le compte à jour.
+ * Le délai entre tentatives croît exponentiellement avec une gigue complète, pour que des
+ * écrivains concurrents ne se retrouvent pas à nouveau en conflit au même instant.
+ */
+@Slf4j
+@Service
+public class OptimisticRetryService {
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+
+    public OptimisticRetryService(@Value("${account.retry.max-attempts:4}") int maxAttempts,
+                                  @Value("${account.retry.initial-backoff:20ms}") Duration initialBackoff,
+                                  @Value("${account.retry.max-backoff:500ms}") Duration maxBackoff) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        OperationStats operationStats = stats.computeIfAbsent(operation, key -> new OperationStats());
+        operationStats.calls.increment();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                operationStats.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    operationStats.exhausted.increment();
+                    log.warn("Optimistic lock conflict on {} not resolved after {} attempts", operation, attempt);
+                    throw e;
+                }
+                operationStats.retries.increment();
+                log.debug("Optimistic lock conflict on {}, attempt {}", operation, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public List<ConflictStatsResponse> stats() {
+        return stats.entrySet().stream()
+                .map(entry -> entry.getValue().toResponse(entry.getKey()))
+                .toList();
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying a conflicting update", e);
+        }
+    }
+
+    private static class OperationStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder exhausted = new LongAdder();
+
+        ConflictStatsResponse toResponse(String operation) {
+            long callCount = calls.sum();
+            long conflictCount = conflicts.sum();
+            return new ConflictStatsResponse(operation, callCount, conflictCount, retries.sum(), exhausted.sum(),
+                    callCount == 0 ? 0.0 : (double) conflictCount / callCount);
+        }
+    }
+}
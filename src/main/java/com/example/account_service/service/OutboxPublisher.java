@@ -0,0 +1,16 @@
+package com.example.account_service.service;
+
+import com.example.account_service.entity.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Point d'extension pour la livraison des événements de l'outbox (Kafka, etc.).
+ *
+ * La publication a lieu dans la transaction du relais : si elle échoue, le lot
+ * reste dans l'outbox et sera retenté. La livraison est donc "au moins une fois".
+ */
+public interface OutboxPublisher {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,48 @@
+package com.example.account_service.service;
+
+import com.example.account_service.entity.OutboxEvent;
+import com.example.account_service.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Relais de l'outbox : réserve un lot, le publie puis le supprime, dans une seule transaction.
+ * Tant que les lots sont pleins, le relais enchaîne sans attendre le prochain déclenchement.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxPublisher outboxPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${account.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${account.outbox.poll-interval:1000}")
+    public void drain() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.claimBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        outboxPublisher.publish(events);
+        outboxEventRepository.deleteAllInBatch(events);
+        return events.size();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.account_service.service;
+
+import com.example.account_service.entity.Account;
+import com.example.account_service.entity.AccountEvent;
+import com.example.account_service.entity.BalanceUpdateEvent;
+import com.example.account_service.entity.OutboxEvent;
+import com.example.account_service.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Écriture des événements de compte dans l'outbox.
+ * Doit être appelé depuis la transaction qui modifie le compte.
+ * Les mêmes événements sont diffusés aux abonnés SSE après le commit.
+ */
+@Service
+@AllArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    static final String ACCOUNT_EVENTS_TOPIC = "account-events";
+
+    static final String BALANCE_UPDATES_TOPIC = "balance-updates";
+
+    private OutboxEventRepository outboxEventRepository;
+
+    private ObjectMapper objectMapper;
+
+    private AccountStreamService accountStreamService;
+
+    public void publishAccountEvent(String eventType, Account account) {
+        OutboxEvent event = outboxEventRepository.save(accountEvent(eventType, account, LocalDateTime.now()));
+        streamAfterCommit(List.of(event), List.of(account));
+    }
+
+    public void publishAccountEvents(String eventType, Collection<Account> accounts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            events.add(accountEvent(eventType, account, now));
+        }
+        outboxEventRepository.saveAll(events);
+        streamAfterCommit(events, accounts);
+    }
+
+    public void publishBalanceUpdateEvent(Account account) {
+        OutboxEvent event = outboxEventRepository.save(balanceUpdateEvent(account, LocalDateTime.now()));
+        streamAfterCommit(List.of(event), List.of(account));
+    }
+
+    public void publishBalanceUpdateEvents(Collection<Account> accounts) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            events.add(balanceUpdateEvent(account, now));
+        }
+        outboxEventRepository.saveAll(events);
+        streamAfterCommit(events, accounts);
+    }
+
+    // Événements et comptes dans le même ordre ; le client sert au routage des abonnements par client
+    private void streamAfterCommit(List<OutboxEvent> events, Collection<Account> accounts) {
+        List<AccountStreamService.StreamEvent> streamEvents = new ArrayList<>(events.size());
+        int i = 0;
+        for (Account account : accounts) {
+            OutboxEvent event = events.get(i++);
+            streamEvents.add(new AccountStreamService.StreamEvent(
+                    account.getId(), account.getCustomerId(), event.getEventType(), event.getPayload()));
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accountStreamService.dispatch(streamEvents);
+            }
+        });
+    }
+
+    private OutboxEvent accountEvent(String eventType, Account account, LocalDateTime now) {
+        AccountEvent event = new AccountEvent();
+        event.setEventType(eventType);
+        event.setAccountId(account.getId());
+        event.setAccountNumber(account.getAccountNumber());
+        event.setCustomerId(account.getCustomerId());
+        event.setAccountType(account.getAccountType().toString());
+        event.setBalance(account.getBalance());
+        event.setTimestamp(now);
+
+        return toOutbox(ACCOUNT_EVENTS_TOPIC, eventType, account.getId(), event, now);
+    }
+
+    private OutboxEvent balanceUpdateEvent(Account account, LocalDateTime now) {
+        BalanceUpdateEvent event = new BalanceUpdateEvent();
+        event.setAccountId(account.getId());
+        event.setAccountNumber(account.getAccountNumber());
+        event.setNewBalance(account.getBalance());
+        event.setTimestamp(now);
+
+        return toOutbox(BALANCE_UPDATES_TOPIC, "BALANCE_UPDATED", account.getId(), event, now);
+    }
+
+    private OutboxEvent toOutbox(String topic, String eventType, Long accountId, Object event, LocalDateTime now) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setTopic(topic);
+        outboxEvent.setEventType(eventType);
+        outboxEvent.setAccountId(accountId);
+        outboxEvent.setCreatedAt(now);
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + eventType + " event", e);
+        }
+        return outboxEvent;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.account_service.service;
+
+/**
+ * La version courante du compte ne correspond pas à celle attendue par le client (en-tête If-Match).
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(Long accountId, long expectedVersion, long currentVersion) {
+        super("Account " + accountId + " is at version " + currentVersion + ", expected " + expectedVersion);
+    }
+}
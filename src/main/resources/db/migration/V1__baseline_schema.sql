@@ -0,0 +1,136 @@
+-- Schéma de référence : tables, séquences et contraintes telles que les entités JPA les décrivent.
+-- Idempotent : une base créée par ddl-auto avant Flyway (accounts et account_alerts seulement, identifiants
+-- IDENTITY, sans colonne version) est reprise à la version 0 (spring.flyway.baseline-on-migrate) et
+-- complétée ici ; ses tables existantes gardent leurs contraintes, équivalentes à celles ci-dessous.
+
+CREATE SEQUENCE IF NOT EXISTS accounts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS account_outbox_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS account_balance_stripes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS balance_journal_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS balance_snapshots_seq START WITH 1 INCREMENT BY 50;
+
+-- Plages de numéros de compte réservées par instance : le pas de la séquence est la taille de plage
+CREATE SEQUENCE IF NOT EXISTS account_number_seq START WITH 1 INCREMENT BY 1000;
+
+CREATE TABLE IF NOT EXISTS accounts (
+    id              BIGINT         NOT NULL,
+    account_number  VARCHAR(20)    NOT NULL,
+    customer_id     BIGINT         NOT NULL,
+    account_type    VARCHAR(255)   NOT NULL,
+    status          VARCHAR(255)   NOT NULL,
+    balance         NUMERIC(15, 2) NOT NULL,
+    overdraft_limit NUMERIC(15, 2),
+    currency        VARCHAR(255)   NOT NULL,
+    created_at      TIMESTAMP(6)   NOT NULL,
+    updated_at      TIMESTAMP(6)   NOT NULL,
+    version         BIGINT         NOT NULL DEFAULT 0,
+    CONSTRAINT accounts_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_accounts_account_number UNIQUE (account_number),
+    CONSTRAINT ck_accounts_account_type CHECK (account_type IN ('CURRENT', 'SAVINGS', 'PROFESSIONAL', 'JOINT')),
+    CONSTRAINT ck_accounts_status CHECK (status IN ('ACTIVE', 'INACTIVE', 'CLOSED', 'SUSPENDED'))
+);
+
+-- Base antérieure : identifiants tirés d'accounts_seq (alignée par V4) et verrouillage optimiste
+ALTER TABLE accounts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_accounts_customer_id_id ON accounts (customer_id, id);
+
+CREATE TABLE IF NOT EXISTS account_alerts (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    account_id BIGINT       NOT NULL,
+    alert_type VARCHAR(255) NOT NULL,
+    message    VARCHAR(255) NOT NULL,
+    is_active  BOOLEAN      NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT account_alerts_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_account_alerts_account FOREIGN KEY (account_id) REFERENCES accounts (id),
+    CONSTRAINT ck_account_alerts_alert_type
+        CHECK (alert_type IN ('LOW_BALANCE', 'HIGH_BALANCE', 'OVERDRAFT', 'LARGE_TRANSACTION', 'SECURITY'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_account_alerts_account_type_active ON account_alerts (account_id, alert_type, is_active);
+
+CREATE TABLE IF NOT EXISTS account_alert_rules (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    account_id BIGINT         NOT NULL,
+    alert_type VARCHAR(255)   NOT NULL,
+    threshold  NUMERIC(15, 2),
+    enabled    BOOLEAN        NOT NULL,
+    CONSTRAINT account_alert_rules_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_account_alert_rules UNIQUE (account_id, alert_type),
+    CONSTRAINT ck_account_alert_rules_alert_type
+        CHECK (alert_type IN ('LOW_BALANCE', 'HIGH_BALANCE', 'OVERDRAFT', 'LARGE_TRANSACTION', 'SECURITY'))
+);
+
+CREATE TABLE IF NOT EXISTS account_balance_stripes (
+    id         BIGINT         NOT NULL,
+    account_id BIGINT         NOT NULL,
+    stripe     INTEGER        NOT NULL,
+    amount     NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT account_balance_stripes_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_account_balance_stripes UNIQUE (account_id, stripe)
+);
+
+CREATE TABLE IF NOT EXISTS account_outbox (
+    id         BIGINT       NOT NULL,
+    topic      VARCHAR(50)  NOT NULL,
+    event_type VARCHAR(50)  NOT NULL,
+    account_id BIGINT       NOT NULL,
+    payload    TEXT         NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT account_outbox_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS customer_account_summary (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    customer_id   BIGINT         NOT NULL,
+    currency      VARCHAR(255)   NOT NULL,
+    account_type  VARCHAR(255)   NOT NULL,
+    status        VARCHAR(255)   NOT NULL,
+    account_count BIGINT         NOT NULL,
+    total_balance NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT customer_account_summary_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_customer_account_summary UNIQUE (customer_id, currency, account_type, status),
+    CONSTRAINT ck_customer_account_summary_account_type
+        CHECK (account_type IN ('CURRENT', 'SAVINGS', 'PROFESSIONAL', 'JOINT')),
+    CONSTRAINT ck_customer_account_summary_status
+        CHECK (status IN ('ACTIVE', 'INACTIVE', 'CLOSED', 'SUSPENDED'))
+);
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    key_hash        VARCHAR(32)  NOT NULL,
+    operation       VARCHAR(50)  NOT NULL,
+    request_hash    BIGINT       NOT NULL,
+    response_status INTEGER,
+    response_body   TEXT,
+    created_at      TIMESTAMP(6) NOT NULL,
+    expires_at      TIMESTAMP(6) NOT NULL,
+    CONSTRAINT idempotency_keys_pkey PRIMARY KEY (key_hash)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys (expires_at);
+
+CREATE TABLE IF NOT EXISTS balance_journal (
+    id          BIGINT         NOT NULL,
+    account_id  BIGINT         NOT NULL,
+    delta       NUMERIC(19, 2) NOT NULL,
+    entry_type  VARCHAR(20)    NOT NULL,
+    recorded_at TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT balance_journal_pkey PRIMARY KEY (id),
+    CONSTRAINT ck_balance_journal_entry_type
+        CHECK (entry_type IN ('OPENING', 'CREDIT', 'DEBIT', 'ADJUSTMENT', 'POSTING'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_balance_journal_account_recorded_at ON balance_journal (account_id, recorded_at);
+
+CREATE TABLE IF NOT EXISTS balance_snapshots (
+    id         BIGINT         NOT NULL,
+    account_id BIGINT         NOT NULL,
+    balance    NUMERIC(19, 2) NOT NULL,
+    as_of      TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT balance_snapshots_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_balance_snapshots_account_as_of ON balance_snapshots (account_id, as_of);
+CREATE INDEX IF NOT EXISTS idx_balance_snapshots_as_of ON balance_snapshots (as_of);
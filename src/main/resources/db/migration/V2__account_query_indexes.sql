@@ -0,0 +1,21 @@
+-- Index secondaires calqués sur les requêtes d'AccountRepository et d'AccountAlertRepository.
+-- Construits sans bloquer les écritures (CONCURRENTLY, hors transaction) : la migration peut
+-- s'appliquer sur une table accounts déjà volumineuse. En cas d'échec, supprimer l'index
+-- resté invalide avant de relancer.
+
+-- findByCustomerIdAndStatus, getTotalBalanceByCustomerId (customer_id = ? AND status = 'ACTIVE') :
+-- le solde inclus permet un parcours d'index seul pour la somme
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_accounts_customer_id_status
+    ON accounts (customer_id, status) INCLUDE (balance);
+
+-- findAccountsWithLowBalance, streamAccountsWithLowBalance (balance < ?)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_accounts_balance
+    ON accounts (balance);
+
+-- findByAccountType, streamByAccountType
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_accounts_account_type
+    ON accounts (account_type);
+
+-- findActiveAfter : pagination par clé sur les seules alertes actives, une petite fraction de la table
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_account_alerts_active_id
+    ON account_alerts (id) WHERE is_active;
@@ -0,0 +1,30 @@
+-- Journal des soldes : ordre de validation et solde d'ouverture des comptes antérieurs au journal.
+-- Les écritures sont suspendues le temps de la migration pour que les soldes d'ouverture soient exacts.
+LOCK TABLE accounts, account_balance_stripes, balance_journal IN SHARE MODE;
+
+-- Transaction qui a écrit chaque variation : un instantané inclut exactement les transactions
+-- terminées avant lui (pg_snapshot_xmin), quel que soit l'horodatage des variations
+ALTER TABLE balance_journal ADD COLUMN tx_id XID8 NOT NULL DEFAULT pg_current_xact_id();
+
+CREATE INDEX idx_balance_journal_tx_id ON balance_journal (tx_id);
+
+-- Les instantanés existants ignoraient les soldes d'ouverture : ils sont recalculés au prochain passage
+DELETE FROM balance_snapshots;
+
+ALTER TABLE balance_snapshots ADD COLUMN cut_xid XID8 NOT NULL;
+
+CREATE INDEX idx_balance_snapshots_cut_xid ON balance_snapshots (cut_xid);
+
+-- Une variation OPENING par compte qui n'en a pas : solde courant (sous-soldes des comptes chauds
+-- compris) moins les variations déjà journalisées, datée de la première d'entre elles, ou de la
+-- migration si le compte n'en a aucune. Aucun solde historique n'est servi avant cette date.
+INSERT INTO balance_journal (id, account_id, delta, entry_type, recorded_at)
+SELECT nextval('balance_journal_seq'), a.id,
+       a.balance
+           + COALESCE((SELECT SUM(s.amount) FROM account_balance_stripes s WHERE s.account_id = a.id), 0)
+           - COALESCE(j.total, 0),
+       'OPENING', COALESCE(j.first_recorded_at, LOCALTIMESTAMP)
+FROM accounts a
+LEFT JOIN (SELECT account_id, SUM(delta) AS total, MIN(recorded_at) AS first_recorded_at
+           FROM balance_journal GROUP BY account_id) j ON j.account_id = a.id
+WHERE NOT EXISTS (SELECT 1 FROM balance_journal o WHERE o.account_id = a.id AND o.entry_type = 'OPENING');
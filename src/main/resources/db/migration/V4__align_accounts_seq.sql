@@ -0,0 +1,10 @@
+-- Les comptes créés avant le passage à accounts_seq ont des identifiants issus de l'ancienne colonne
+-- IDENTITY : la séquence est avancée au-delà du plus grand identifiant existant, avant que l'instance
+-- n'accepte des requêtes. Sans effet sur une base créée par V1 ou déjà alignée.
+LOCK TABLE accounts IN SHARE MODE;
+
+CREATE SEQUENCE IF NOT EXISTS accounts_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('accounts_seq', m.max_id + 50)
+FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM accounts) m, accounts_seq s
+WHERE s.last_value <= m.max_id;
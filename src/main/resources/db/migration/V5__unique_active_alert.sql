@@ -0,0 +1,12 @@
+-- Une seule alerte active par compte et par type, garantie par la base : la garde NOT EXISTS d'un
+-- INSERT ne suffit pas en READ COMMITTED, deux instances pouvant lever la même alerte au même instant.
+-- Les doublons déjà présents sont désactivés, seule la plus récente restant active.
+UPDATE account_alerts a SET is_active = false
+WHERE a.is_active
+  AND EXISTS (SELECT 1 FROM account_alerts b
+              WHERE b.account_id = a.account_id AND b.alert_type = a.alert_type AND b.is_active AND b.id > a.id);
+
+-- Index construit dans la transaction de la migration, avec le nettoyage : aucun doublon ne peut
+-- s'insérer entre les deux
+CREATE UNIQUE INDEX IF NOT EXISTS uk_account_alerts_active
+    ON account_alerts (account_id, alert_type) WHERE is_active;
@@ -0,0 +1,67 @@
+package com.example.account_service;
+
+import com.example.account_service.dto.AccountResponse;
+import com.example.account_service.dto.CreateAccountRequest;
+import com.example.account_service.entity.AccountType;
+import com.example.account_service.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Démarrage sur une base créée par ddl-auto avant Flyway : la base est reprise à la version 0,
+ * toutes les migrations s'appliquent et Hibernate valide le schéma obtenu.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaUpgradeTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withInitScript("db/pre-flyway-schema.sql");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void existingDatabaseIsBaselinedAtZeroAndFullyMigrated() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+
+        assertEquals("0", versions.get(0));
+        assertTrue(versions.containsAll(List.of("1", "2", "3", "4")), versions::toString);
+    }
+
+    @Test
+    void existingAccountsAreKeptWithOpeningBalances() {
+        assertEquals(120L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM accounts WHERE customer_id = 7", Long.class));
+        // Version initialisée, et variation OPENING égale au solde repris (V3)
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM accounts a WHERE a.customer_id = 7 AND (a.version <> 0 OR a.balance <> " +
+                "(SELECT SUM(j.delta) FROM balance_journal j WHERE j.account_id = a.id))", Long.class));
+    }
+
+    @Test
+    void newAccountsDrawIdsAboveExistingOnes() {
+        AccountResponse created = accountService.createAccount(
+                new CreateAccountRequest(8L, AccountType.SAVINGS, new BigDecimal("10.00"), null, "EUR"));
+
+        assertTrue(created.getId() > 120, () -> "id " + created.getId());
+        assertEquals(0L, created.getVersion());
+    }
+}
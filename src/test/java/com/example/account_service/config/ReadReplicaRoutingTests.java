@@ -0,0 +1,113 @@
+package com.example.account_service.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Deux bases H2 embarquées jouent le primaire et le réplica ; chacune contient son propre nom
+ * dans la table {@code node}, ce qui permet de vérifier où chaque transaction a été routée.
+ */
+class ReadReplicaRoutingTests {
+
+    private JdbcTemplate replicaAdmin;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = embedded("primary");
+        DataSource replica = embedded("replica");
+        replicaAdmin = new JdbcTemplate(replica);
+        replicaAdmin.execute("CREATE TABLE replication_lag (seconds DOUBLE)");
+        replicaAdmin.update("INSERT INTO replication_lag VALUES (0)");
+
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), tracker,
+                Duration.ofSeconds(5), "SELECT seconds FROM replication_lag");
+        routing.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy dataSource =
+                new LazyConnectionDataSourceProxy(new WriteTrackingDataSource(primary, tracker));
+        dataSource.setReadOnlyDataSource(routing);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertEquals("primary", readWrite.execute(status -> currentNode()));
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void callerReadsItsOwnWritesFromPrimary() {
+        bindCaller(42);
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE node SET visits = visits + 1"));
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+
+        bindCaller(7);
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void staleReplicaFallsBackToPrimary() {
+        replicaAdmin.update("UPDATE replication_lag SET seconds = 60");
+        routing.refreshLag();
+        assertEquals("primary", readOnly.execute(status -> currentNode()));
+
+        replicaAdmin.update("UPDATE replication_lag SET seconds = 1");
+        routing.refreshLag();
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void cacheLoadsReadFromPrimary() {
+        assertEquals("primary", readOnly.execute(status -> ReplicaRoutingDataSource.readFromPrimary(this::currentNode)));
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static void bindCaller(int userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("userId", userId);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static DataSource embedded(String name) {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate admin = new JdbcTemplate(dataSource);
+        admin.execute("CREATE TABLE node (name VARCHAR(20), visits INT)");
+        admin.update("INSERT INTO node VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
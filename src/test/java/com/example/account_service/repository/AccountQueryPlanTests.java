@@ -0,0 +1,211 @@
+package com.example.account_service.repository;
+
+import com.example.account_service.config.AccountNumberConfig;
+import com.example.account_service.entity.Account;
+import com.example.account_service.entity.AccountStatus;
+import com.example.account_service.entity.AccountType;
+import com.example.account_service.entity.AlertType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Le schéma est celui des migrations Flyway, validé par Hibernate au démarrage (ddl-auto: validate).
+ * Chaque requête du dépôt est exécutée une fois pour capturer le SQL généré, puis passée à EXPLAIN
+ * avec les mêmes paramètres. Les parcours séquentiels sont désactivés : sur une table de test, on
+ * vérifie que l'index attendu correspond à la forme de la requête, pas le choix du planificateur
+ * pour un volume donné.
+ *
+ * Parcours séquentiels voulus, sans test : findByStatus et streamByStatus (quatre statuts, une
+ * sélection qui couvre une large part de la table, servie à l'export). Les lectures par ID passent
+ * par la clé primaire et ne sont pas vérifiées ici.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.account_service.repository.AccountQueryPlanTests$SqlCapture")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AccountNumberConfig.class)
+@Testcontainers(disabledWithoutDocker = true)
+class AccountQueryPlanTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountAlertRepository alertRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void populate() {
+        // 20 000 comptes, 10 par client avec des statuts différents ; 5 % de comptes professionnels
+        jdbcTemplate.update("""
+                INSERT INTO accounts (id, account_number, customer_id, account_type, status, balance,
+                                      overdraft_limit, currency, created_at, updated_at, version)
+                SELECT g, lpad(g::text, 20, '0'), g % 2000,
+                       CASE WHEN g % 20 = 0 THEN 'PROFESSIONAL' WHEN g % 2 = 0 THEN 'CURRENT' ELSE 'SAVINGS' END,
+                       (ARRAY['ACTIVE', 'INACTIVE', 'SUSPENDED', 'CLOSED'])[(g / 2000) % 4 + 1],
+                       (g * 37) % 100000, 100, 'EUR', now(), now(), 0
+                FROM generate_series(1, 20000) g""");
+        // Une alerte par compte, 10 % encore actives
+        jdbcTemplate.update("""
+                INSERT INTO account_alerts (account_id, alert_type, message, is_active, created_at)
+                SELECT g, 'LOW_BALANCE', 'Low balance', g % 10 = 0, now()
+                FROM generate_series(1, 20000) g""");
+        jdbcTemplate.execute("ANALYZE accounts, account_alerts");
+        SqlCapture.statements.clear();
+    }
+
+    @Test
+    void findByCustomerIdAndStatusUsesCustomerStatusIndex() {
+        accountRepository.findByCustomerIdAndStatus(42L, AccountStatus.ACTIVE);
+
+        assertUsesIndex("idx_accounts_customer_id_status", 42L, "ACTIVE");
+    }
+
+    @Test
+    void customerQueriesUseCustomerIndexes() {
+        // (customer_id, id) ou (customer_id, status) : les deux index commencent par customer_id
+        accountRepository.findByCustomerId(42L);
+        assertUsesIndex("idx_accounts_customer_id", 42L);
+
+        accountRepository.findResponsesByCustomerId(42L);
+        assertUsesIndex("idx_accounts_customer_id", 42L);
+
+        accountRepository.findVersionsByCustomerId(42L);
+        assertUsesIndex("idx_accounts_customer_id", 42L);
+
+        accountRepository.countAccountsByCustomerId(42L);
+        assertUsesIndex("idx_accounts_customer_id", 42L);
+
+        accountRepository.summarizeByCustomerId(42L);
+        assertUsesIndex("idx_accounts_customer_id", 42L);
+    }
+
+    @Test
+    void keysetPageUsesCustomerIdIdIndex() {
+        accountRepository.findResponsesByCustomerIdAfter(42L, 0L, Limit.of(51));
+
+        assertUsesIndex("idx_accounts_customer_id_id", 42L, 0L, 51);
+    }
+
+    @Test
+    void accountNumberLookupsUseUniqueIndex() {
+        accountRepository.findResponseByAccountNumber("00000000000000000042");
+        assertUsesIndex("uk_accounts_account_number", "00000000000000000042");
+
+        accountRepository.findVersionByAccountNumber("00000000000000000042");
+        assertUsesIndex("uk_accounts_account_number", "00000000000000000042");
+    }
+
+    @Test
+    void totalBalanceByCustomerUsesCustomerStatusIndex() {
+        accountRepository.getTotalBalanceByCustomerId(42L);
+
+        assertUsesIndex("idx_accounts_customer_id_status", 42L);
+    }
+
+    @Test
+    void lowBalanceUsesBalanceIndex() {
+        accountRepository.findAccountsWithLowBalance(new BigDecimal("100"));
+
+        assertUsesIndex("idx_accounts_balance", new BigDecimal("100"));
+    }
+
+    @Test
+    void lowBalanceStreamUsesBalanceIndex() {
+        try (Stream<Account> accounts = accountRepository.streamAccountsWithLowBalance(new BigDecimal("100"))) {
+            assertUsesIndex("idx_accounts_balance", new BigDecimal("100"));
+        }
+    }
+
+    @Test
+    void accountTypeStreamUsesAccountTypeIndex() {
+        try (Stream<Account> accounts = accountRepository.streamByAccountType(AccountType.PROFESSIONAL)) {
+            assertUsesIndex("idx_accounts_account_type", "PROFESSIONAL");
+        }
+    }
+
+    @Test
+    void findByAccountTypeUsesAccountTypeIndex() {
+        accountRepository.findByAccountType(AccountType.PROFESSIONAL);
+
+        assertUsesIndex("idx_accounts_account_type", "PROFESSIONAL");
+    }
+
+    @Test
+    void activeAlertsPageUsesPartialIndex() {
+        alertRepository.findActiveAfter(AlertType.LOW_BALANCE, 0L, Limit.of(50));
+
+        assertUsesIndex("idx_account_alerts_active_id", 0L, "LOW_BALANCE", "LOW_BALANCE", 50);
+    }
+
+    @Test
+    void activeAlertsOfAccountUseAccountIndexes() {
+        alertRepository.findActiveByAccountId(42L);
+
+        // Index unique partiel des alertes actives, ou (account_id, alert_type, is_active)
+        String plan = explainLast(42L);
+        assertTrue(plan.contains("uk_account_alerts_active") || plan.contains("idx_account_alerts_account_type_active"),
+                () -> SqlCapture.last() + "\n" + plan);
+    }
+
+    /**
+     * Paramètres dans l'ordre des marqueurs {@code ?} du dernier SQL capturé.
+     */
+    private void assertUsesIndex(String indexName, Object... args) {
+        String plan = explainLast(args);
+
+        assertTrue(plan.contains(indexName), () -> indexName + " not used by\n" + SqlCapture.last() + "\n" + plan);
+    }
+
+    private String explainLast(Object... args) {
+        String sql = SqlCapture.last();
+        assertEquals(args.length, sql.chars().filter(c -> c == '?').count(), sql);
+
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+
+    /**
+     * Enregistre le SQL préparé par Hibernate ; instancié par Hibernate à partir de son nom de classe.
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        static String last() {
+            assertFalse(statements.isEmpty(), "No SQL captured");
+            return statements.get(statements.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.CreateAccountRequest;
+import com.example.account_service.entity.AccountType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Crédits et débits atomiques : la garde de découvert de l'UPDATE tient sous concurrence.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class AccountPostingTests {
+
+    private static final int THREADS = 20;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentDebitsNeverExceedTheOverdraftLimit() throws Exception {
+        // 100 de solde et 50 de découvert : 15 débits de 10 sur 20 passent
+        Long accountId = createAccount(new BigDecimal("100.00"), new BigDecimal("50.00"));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        int applied = 0;
+        int rejected = 0;
+        try {
+            List<Future<Boolean>> debits = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                debits.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        accountService.debitAccount(accountId, BigDecimal.TEN);
+                        return true;
+                    } catch (RuntimeException e) {
+                        assertEquals("Insufficient funds. Balance would exceed overdraft limit", e.getMessage());
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> debit : debits) {
+                if (debit.get()) {
+                    applied++;
+                } else {
+                    rejected++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(15, applied);
+        assertEquals(5, rejected);
+        assertEquals(0, new BigDecimal("-50.00").compareTo(balance(accountId)));
+        assertEquals(0, new BigDecimal("-50.00").compareTo(journaled(accountId)));
+    }
+
+    @Test
+    void debitOfInactiveOrMissingAccountIsRejected() {
+        Long accountId = createAccount(new BigDecimal("100.00"), null);
+        accountService.suspendAccount(accountId);
+
+        RuntimeException inactive = assertThrows(RuntimeException.class,
+                () -> accountService.debitAccount(accountId, BigDecimal.ONE));
+        assertEquals("Account is not active: SUSPENDED", inactive.getMessage());
+        assertThrows(RuntimeException.class, () -> accountService.creditAccount(Long.MAX_VALUE, BigDecimal.ONE));
+        assertEquals(0, new BigDecimal("100.00").compareTo(balance(accountId)));
+    }
+
+    private Long createAccount(BigDecimal deposit, BigDecimal overdraftLimit) {
+        return accountService.createAccount(
+                new CreateAccountRequest(1L, AccountType.CURRENT, deposit, overdraftLimit, "EUR")).getId();
+    }
+
+    private BigDecimal balance(Long accountId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+    }
+
+    private BigDecimal journaled(Long accountId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT SUM(delta) FROM balance_journal WHERE account_id = ?", BigDecimal.class, accountId);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.BalancePosting;
+import com.example.account_service.dto.BalancePostingResult;
+import com.example.account_service.dto.CreateAccountRequest;
+import com.example.account_service.entity.AccountType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Écritures en masse : ordre d'application par compte et résultat de chaque écriture,
+ * dans l'ordre de la requête, quand une partie est refusée. L'agrégateur des comptes chauds est
+ * espacé d'une heure pour observer les sous-soldes avant repliement.
+ */
+@SpringBootTest(properties = "account.hot.aggregation-interval=3600000")
+@Testcontainers(disabledWithoutDocker = true)
+class BalanceBatchServiceTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private BalanceBatchService balanceBatchService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void postingsApplyInRequestOrderPerAccountAndReportEachFailure() {
+        Long a = createAccount();
+        Long b = createAccount();
+        Long suspended = createAccount();
+        accountService.suspendAccount(suspended);
+
+        List<BalancePostingResult> results = balanceBatchService.applyPostings(Arrays.asList(
+                posting(a, "50.00"),
+                posting(b, "20.00"),
+                // Ne passe qu'après le crédit de 50 qui le précède
+                posting(a, "-120.00"),
+                posting(a, "-100.00"),
+                posting(Long.MAX_VALUE, "10.00"),
+                posting(suspended, "10.00"),
+                posting(a, "0"),
+                new BalancePosting(null, BigDecimal.ONE)));
+
+        assertEquals(8, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertFailure(results.get(3), "Insufficient funds. Balance would exceed overdraft limit");
+        assertFailure(results.get(4), "Account not found with ID: " + Long.MAX_VALUE);
+        assertFailure(results.get(5), "Account is not active: SUSPENDED");
+        assertFailure(results.get(6), "Amount must be non-zero");
+        assertFailure(results.get(7), "Account ID and amount are required");
+
+        assertBalance(a, "30.00");
+        assertBalance(b, "120.00");
+        assertBalance(suspended, "100.00");
+    }
+
+    @Test
+    void hotAccountPostingsGoThroughStripes() {
+        Long hot = createAccount();
+        hotAccountService.configure(hot, 4);
+
+        List<BalancePostingResult> results = balanceBatchService.applyPostings(List.of(
+                posting(hot, "40.00"),
+                // Contrôlé sur le solde plus le crédit en attente
+                posting(hot, "-130.00"),
+                posting(hot, "-20.00")));
+
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertFailure(results.get(2), "Insufficient funds. Balance would exceed overdraft limit");
+
+        assertEquals(0, new BigDecimal("40.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT SUM(amount) FROM account_balance_stripes WHERE account_id = ?", BigDecimal.class, hot)));
+        transactionTemplate.executeWithoutResult(status -> hotAccountService.fold(hot));
+        assertBalance(hot, "10.00");
+    }
+
+    private Long createAccount() {
+        return accountService.createAccount(new CreateAccountRequest(
+                1L, AccountType.CURRENT, new BigDecimal("100.00"), BigDecimal.ZERO, "EUR")).getId();
+    }
+
+    private static BalancePosting posting(Long accountId, String amount) {
+        return new BalancePosting(accountId, new BigDecimal(amount));
+    }
+
+    private static void assertFailure(BalancePostingResult result, String message) {
+        assertFalse(result.isSuccess(), () -> "posting " + result.getIndex() + " applied");
+        assertEquals(message, result.getMessage());
+    }
+
+    private void assertBalance(Long accountId, String expected) {
+        BigDecimal balance = jdbcTemplate.queryForObject(
+                "SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), () -> "balance " + balance);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.CreateAccountRequest;
+import com.example.account_service.entity.AccountType;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Soldes historiques de part et d'autre des coupures d'instantané. Les instants sont lus sur
+ * l'horloge de la base, celle qui date les variations. Les instantanés planifiés sont espacés
+ * d'une heure, les tests les déclenchent eux-mêmes.
+ */
+@SpringBootTest(properties = "account.journal.snapshot-interval=3600000")
+@Testcontainers(disabledWithoutDocker = true)
+class BalanceJournalServiceTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private BalanceJournalService balanceJournalService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void balancesAsOfAreExactAcrossSnapshotCuts() {
+        LocalDateTime beforeOpening = now();
+        Long accountId = createAccount();
+        LocalDateTime opened = now();
+        accountService.creditAccount(accountId, new BigDecimal("50.00"));
+        LocalDateTime credited = now();
+
+        balanceJournalService.takeSnapshots();
+        LocalDateTime firstCut = now();
+        accountService.debitAccount(accountId, new BigDecimal("30.00"));
+        LocalDateTime debited = now();
+
+        balanceJournalService.takeSnapshots();
+        LocalDateTime secondCut = now();
+        accountService.creditAccount(accountId, new BigDecimal("5.00"));
+        LocalDateTime last = now();
+
+        assertThrows(EntityNotFoundException.class, () -> balanceJournalService.getBalanceAsOf(accountId, beforeOpening));
+        assertBalanceAsOf(accountId, opened, "100.00");
+        assertBalanceAsOf(accountId, credited, "150.00");
+        assertBalanceAsOf(accountId, firstCut, "150.00");
+        assertBalanceAsOf(accountId, debited, "120.00");
+        assertBalanceAsOf(accountId, secondCut, "120.00");
+        assertBalanceAsOf(accountId, last, "125.00");
+    }
+
+    @Test
+    void transactionCommittedAfterTheCutIsCountedOnce() throws Exception {
+        Long accountId = createAccount();
+        accountService.creditAccount(accountId, new BigDecimal("50.00"));
+
+        // Transaction commencée avant la coupure, validée après
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        LocalDateTime cut;
+        try {
+            Future<?> longTransaction = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                accountService.creditAccount(accountId, new BigDecimal("7.00"));
+                written.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(written.await(30, TimeUnit.SECONDS));
+
+            balanceJournalService.takeSnapshots();
+            cut = now();
+
+            release.countDown();
+            longTransaction.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        LocalDateTime committed = now();
+
+        assertBalanceAsOf(accountId, cut, "150.00");
+        assertBalanceAsOf(accountId, committed, "157.00");
+
+        // L'instantané suivant reprend la transaction longue sans la compter deux fois
+        balanceJournalService.takeSnapshots();
+        LocalDateTime nextCut = now();
+        assertBalanceAsOf(accountId, nextCut, "157.00");
+        assertBalanceAsOf(accountId, cut, "150.00");
+    }
+
+    private Long createAccount() {
+        return accountService.createAccount(
+                new CreateAccountRequest(1L, AccountType.CURRENT, new BigDecimal("100.00"), null, "EUR")).getId();
+    }
+
+    private LocalDateTime now() {
+        return jdbcTemplate.queryForObject("SELECT CAST(clock_timestamp() AS timestamp)", LocalDateTime.class);
+    }
+
+    private void assertBalanceAsOf(Long accountId, LocalDateTime asOf, String expected) {
+        BigDecimal balance = balanceJournalService.getBalanceAsOf(accountId, asOf);
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), () -> "balance at " + asOf + ": " + balance);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.account_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockAccountNumberGeneratorTests {
+
+    private static final int COUNT = 1_000_000;
+
+    private static final int THREADS = 8;
+
+    @Test
+    void noCollisionOverOneMillionNumbers() {
+        AtomicLong sequence = new AtomicLong(1);
+        BlockAccountNumberGenerator generator =
+                new BlockAccountNumberGenerator(() -> sequence.getAndAdd(1000), 1000);
+
+        BitSet seen = new BitSet(COUNT + 1);
+        for (int i = 0; i < COUNT; i++) {
+            String number = generator.nextAccountNumber();
+
+            assertTrue(luhnValid(number), number);
+            int value = Integer.parseInt(number.substring(4, 16));
+            assertFalse(seen.get(value), "Duplicate account number " + number);
+            seen.set(value);
+        }
+        assertEquals(COUNT, seen.cardinality());
+    }
+
+    @Test
+    void noCollisionAcrossThreads() throws Exception {
+        // Petites plages : les threads se disputent souvent la réservation d'une nouvelle plage
+        AtomicLong sequence = new AtomicLong(1);
+        BlockAccountNumberGenerator generator =
+                new BlockAccountNumberGenerator(() -> sequence.getAndAdd(10), 10);
+
+        int perThread = COUNT / THREADS;
+        Set<String> seen = ConcurrentHashMap.newKeySet(COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        String number = generator.nextAccountNumber();
+                        assertTrue(seen.add(number), "Duplicate account number " + number);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(perThread * THREADS, seen.size());
+    }
+
+    @Test
+    void formatFitsAccountNumberColumn() {
+        assertEquals("ACC.0000000000000", BlockAccountNumberGenerator.format(0));
+        assertEquals("ACC.0000000000794", BlockAccountNumberGenerator.format(79));
+        assertTrue(BlockAccountNumberGenerator.format(BlockAccountNumberGenerator.MAX_VALUE).length() <= 20);
+        assertThrows(IllegalStateException.class,
+                () -> BlockAccountNumberGenerator.format(BlockAccountNumberGenerator.MAX_VALUE + 1));
+    }
+
+    private static boolean luhnValid(String number) {
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            int digit = number.charAt(number.length() - 1 - i) - '0';
+            if (i % 2 == 1) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0;
+    }
+}
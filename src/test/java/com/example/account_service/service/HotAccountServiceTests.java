@@ -0,0 +1,127 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.CreateAccountRequest;
+import com.example.account_service.entity.AccountType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Crédits concurrents sur un compte chaud pendant que des repliements et des reconfigurations
+ * s'exécutent : aucun crédit ne doit être perdu ni compté deux fois.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class HotAccountServiceTests {
+
+    private static final int THREADS = 8;
+
+    private static final int CREDITS_PER_THREAD = 200;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCreditsAndFoldsConserveTheBalance() throws Exception {
+        Long accountId = createAccount();
+        hotAccountService.configure(accountId, 4);
+
+        runCreditsWhile(accountId, () -> transactionTemplate.executeWithoutResult(
+                status -> hotAccountService.fold(accountId)));
+
+        assertConserved(accountId);
+    }
+
+    @Test
+    void concurrentCreditsAndReconfigurationsConserveTheBalance() throws Exception {
+        Long accountId = createAccount();
+        hotAccountService.configure(accountId, 4);
+
+        int[] stripeCounts = {8, 2, 0, 4};
+        int[] next = {0};
+        runCreditsWhile(accountId, () -> hotAccountService.configure(accountId, stripeCounts[next[0]++ % stripeCounts.length]));
+
+        assertConserved(accountId);
+    }
+
+    private Long createAccount() {
+        return accountService.createAccount(
+                new CreateAccountRequest(1L, AccountType.CURRENT, new BigDecimal("100.00"), null, "EUR")).getId();
+    }
+
+    /**
+     * Crédits de 1.00 depuis plusieurs threads, l'opération concurrente étant rejouée en boucle jusqu'à la fin.
+     */
+    private void runCreditsWhile(Long accountId, Runnable concurrently) throws Exception {
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            Future<?> background = executor.submit(() -> {
+                while (!done.get()) {
+                    concurrently.run();
+                }
+            });
+            List<Future<?>> credits = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                credits.add(executor.submit(() -> {
+                    for (int i = 0; i < CREDITS_PER_THREAD; i++) {
+                        accountService.creditAccount(accountId, BigDecimal.ONE);
+                    }
+                }));
+            }
+            for (Future<?> credit : credits) {
+                credit.get();
+            }
+            done.set(true);
+            background.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertConserved(Long accountId) {
+        transactionTemplate.executeWithoutResult(status -> hotAccountService.fold(accountId));
+
+        BigDecimal expected = new BigDecimal("100.00").add(BigDecimal.valueOf((long) THREADS * CREDITS_PER_THREAD));
+        BigDecimal balance = jdbcTemplate.queryForObject(
+                "SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+        BigDecimal pending = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM account_balance_stripes WHERE account_id = ?",
+                BigDecimal.class, accountId);
+        BigDecimal journaled = jdbcTemplate.queryForObject(
+                "SELECT SUM(delta) FROM balance_journal WHERE account_id = ?", BigDecimal.class, accountId);
+
+        assertEquals(0, expected.compareTo(balance), "balance " + balance);
+        assertEquals(0, pending.signum(), "pending " + pending);
+        assertEquals(0, expected.compareTo(journaled), "journal " + journaled);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.AccountResponse;
+import com.example.account_service.dto.CreateAccountRequest;
+import com.example.account_service.entity.AccountType;
+import com.example.account_service.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Clés d'idempotence sur PostgreSQL : rejeu de la réponse stockée, et refus d'une clé réutilisée
+ * avec une autre requête, que la clé soit connue de l'index mémoire ou seulement de la table.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class IdempotencyServiceTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HttpServletRequest request;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void bindCaller() {
+        MockHttpServletRequest caller = new MockHttpServletRequest();
+        caller.setAttribute("userId", 42);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(caller));
+    }
+
+    @AfterEach
+    void clearCaller() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void repeatedKeyReplaysTheStoredResponse() {
+        String key = UUID.randomUUID().toString();
+        CreateAccountRequest create = createRequest("100.00");
+
+        ResponseEntity<AccountResponse> first = createAccount(idempotencyService, key, create);
+        ResponseEntity<AccountResponse> replayed = createAccount(idempotencyService, key, create);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(first.getBody().getId(), replayed.getBody().getId());
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM accounts WHERE id = ?", Long.class, first.getBody().getId()));
+    }
+
+    @Test
+    void keyReusedWithDifferentPayloadIsRejected() {
+        String key = UUID.randomUUID().toString();
+        createAccount(idempotencyService, key, createRequest("100.00"));
+
+        ResponseEntity<AccountResponse> reused = createAccount(idempotencyService, key, createRequest("999.00"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertNull(reused.getBody());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void keyReusedWithDifferentPayloadOnAnotherInstanceIsRejected() {
+        String key = UUID.randomUUID().toString();
+        createAccount(idempotencyService, key, createRequest("100.00"));
+
+        // Index mémoire vide : seule la table connaît la clé
+        IdempotencyService otherInstance = new IdempotencyService(idempotencyRecordRepository, transactionTemplate,
+                objectMapper, request, 1024, Duration.ofHours(24));
+        ResponseEntity<AccountResponse> reused = createAccount(otherInstance, key, createRequest("999.00"));
+        ResponseEntity<AccountResponse> replayed = createAccount(otherInstance, key, createRequest("100.00"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, reused.getStatusCode());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void sameKeyFromAnotherCallerIsIndependent() {
+        String key = UUID.randomUUID().toString();
+        ResponseEntity<AccountResponse> first = createAccount(idempotencyService, key, createRequest("100.00"));
+
+        ((MockHttpServletRequest) ((ServletRequestAttributes) RequestContextHolder.getRequestAttributes())
+                .getRequest()).setAttribute("userId", 7);
+        ResponseEntity<AccountResponse> other = createAccount(idempotencyService, key, createRequest("999.00"));
+
+        assertEquals(HttpStatus.CREATED, other.getStatusCode());
+        assertEquals(2, executions.get());
+        assertNotEquals(first.getBody().getId(), other.getBody().getId());
+    }
+
+    private ResponseEntity<AccountResponse> createAccount(IdempotencyService service, String key, CreateAccountRequest create) {
+        return service.execute(key, "createAccount", create, AccountResponse.class, () -> {
+            executions.incrementAndGet();
+            return new ResponseEntity<>(accountService.createAccount(create), HttpStatus.CREATED);
+        });
+    }
+
+    private static CreateAccountRequest createRequest(String deposit) {
+        return new CreateAccountRequest(1L, AccountType.CURRENT, new BigDecimal(deposit), null, "EUR");
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.ConflictStatsResponse;
+import com.example.account_service.dto.CreateAccountRequest;
+import com.example.account_service.entity.AccountType;
+import com.example.account_service.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Conflits de version réels sur PostgreSQL : une écriture concurrente est validée entre la lecture
+ * du compte et le commit de la première tentative.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class OptimisticRetryServiceTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private OptimisticRetryService optimisticRetryService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void conflictingUpdateIsRetriedWithTheCurrentVersion() {
+        Long accountId = createAccount();
+        long version = currentVersion(accountId);
+        AtomicInteger attempts = new AtomicInteger();
+
+        optimisticRetryService.run("retryTestConflict", () -> transactionTemplate.executeWithoutResult(status -> {
+            // Le compte est chargé dans le contexte de persistance avant l'écriture concurrente
+            accountRepository.findById(accountId).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                concurrentWrite(accountId);
+            }
+            accountService.updateBalance(accountId, new BigDecimal("250.00"), null);
+        }));
+
+        assertEquals(2, attempts.get());
+        assertEquals(version + 2, currentVersion(accountId));
+        assertEquals(0, new BigDecimal("250.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId)));
+
+        ConflictStatsResponse stats = stats("retryTestConflict");
+        assertEquals(1, stats.getConflicts());
+        assertEquals(1, stats.getRetries());
+        assertEquals(0, stats.getExhausted());
+    }
+
+    @Test
+    void failedPreconditionIsNotRetried() {
+        Long accountId = createAccount();
+        long version = currentVersion(accountId);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(PreconditionFailedException.class, () -> optimisticRetryService.run("retryTestPrecondition", () -> {
+            attempts.incrementAndGet();
+            accountService.updateBalance(accountId, new BigDecimal("250.00"), version + 1);
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(version, currentVersion(accountId));
+        assertEquals(0, stats("retryTestPrecondition").getConflicts());
+    }
+
+    private Long createAccount() {
+        return accountService.createAccount(
+                new CreateAccountRequest(1L, AccountType.CURRENT, new BigDecimal("100.00"), null, "EUR")).getId();
+    }
+
+    // Autre transaction, validée avant la fin de la tentative en cours
+    private void concurrentWrite(Long accountId) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        requiresNew.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE accounts SET balance = balance + 1, version = version + 1 WHERE id = ?", accountId));
+    }
+
+    private long currentVersion(Long accountId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM accounts WHERE id = ?", Long.class, accountId);
+    }
+
+    private ConflictStatsResponse stats(String operation) {
+        return optimisticRetryService.stats().stream()
+                .filter(stats -> stats.getOperation().equals(operation))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.account_service.service;
+
+import com.example.account_service.dto.CreateAccountRequest;
+import com.example.account_service.entity.AccountType;
+import com.example.account_service.entity.OutboxEvent;
+import com.example.account_service.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Outbox et relais avec le publieur en mémoire : les événements publiés sont captés par un
+ * {@code @EventListener}. Le relais planifié est espacé d'une heure, les tests le déclenchent eux-mêmes.
+ */
+@SpringBootTest(properties = "account.outbox.poll-interval=3600000")
+@Testcontainers(disabledWithoutDocker = true)
+class OutboxRelayTests {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PublishedEvents published;
+
+    @BeforeEach
+    void drainPreviousEvents() {
+        outboxRelay.drain();
+        published.events.clear();
+    }
+
+    @Test
+    void eventIsWrittenWithTheChangeAndRelayedOnce() {
+        Long accountId = createAccount();
+        accountService.creditAccount(accountId, BigDecimal.TEN);
+
+        assertEquals(List.of("ACCOUNT_CREATED", "BALANCE_UPDATED"), jdbcTemplate.queryForList(
+                "SELECT event_type FROM account_outbox WHERE account_id = ? ORDER BY id", String.class, accountId));
+
+        outboxRelay.drain();
+        outboxRelay.drain();
+
+        assertEquals(List.of("ACCOUNT_CREATED", "BALANCE_UPDATED"),
+                publishedFor(accountId).stream().map(OutboxEvent::getEventType).toList());
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM account_outbox WHERE account_id = ?", Long.class, accountId));
+    }
+
+    @Test
+    void rolledBackChangeLeavesNoEvent() {
+        Long accountId = createAccount();
+        outboxRelay.drain();
+        published.events.clear();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            accountService.creditAccount(accountId, BigDecimal.TEN);
+            status.setRollbackOnly();
+        });
+        outboxRelay.drain();
+
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM account_outbox WHERE account_id = ?", Long.class, accountId));
+        assertTrue(publishedFor(accountId).isEmpty());
+    }
+
+    @Test
+    void relaySkipsBatchClaimedByAnotherInstance() throws Exception {
+        Long accountId = createAccount();
+        for (int i = 0; i < 4; i++) {
+            accountService.creditAccount(accountId, BigDecimal.ONE);
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM account_outbox WHERE account_id = ? ORDER BY id", Long.class, accountId);
+        assertEquals(5, ids.size());
+
+        // Une autre instance réserve les deux premiers événements et garde sa transaction ouverte
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> otherInstance = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                assertEquals(ids.subList(0, 2), outboxEventRepository.claimBatch(2).stream().map(OutboxEvent::getId).toList());
+                claimed.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                // Publication échouée : le lot reste dans l'outbox
+                status.setRollbackOnly();
+            }));
+            assertTrue(claimed.await(30, TimeUnit.SECONDS));
+
+            // Ne bloque pas sur le lot réservé : les événements suivants partent, dans l'ordre
+            outboxRelay.drain();
+            assertEquals(ids.subList(2, 5), publishedIdsFor(accountId));
+
+            release.countDown();
+            otherInstance.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        outboxRelay.drain();
+        List<Long> publishedIds = publishedIdsFor(accountId);
+        assertEquals(ids.subList(2, 5), publishedIds.subList(0, 3));
+        assertEquals(ids.subList(0, 2), publishedIds.subList(3, 5));
+    }
+
+    private Long createAccount() {
+        return accountService.createAccount(
+                new CreateAccountRequest(1L, AccountType.CURRENT, new BigDecimal("100.00"), null, "EUR")).getId();
+    }
+
+    private List<OutboxEvent> publishedFor(Long accountId) {
+        return published.events.stream().filter(event -> event.getAccountId().equals(accountId)).toList();
+    }
+
+    private List<Long> publishedIdsFor(Long accountId) {
+        return publishedFor(accountId).stream().map(OutboxEvent::getId).toList();
+    }
+
+    @TestConfiguration
+    static class PublishedEvents {
+
+        final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        void onPublished(OutboxEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+-- Schéma tel que ddl-auto: update le créait avant Flyway (Hibernate 6, entités d'origine), avec quelques comptes
+create table accounts (
+    id bigint generated by default as identity,
+    account_number varchar(20) not null,
+    account_type varchar(255) not null check (account_type in ('CURRENT','SAVINGS','PROFESSIONAL','JOINT')),
+    balance numeric(15,2) not null,
+    created_at timestamp(6) not null,
+    currency varchar(255) not null,
+    customer_id bigint not null,
+    overdraft_limit numeric(15,2),
+    status varchar(255) not null check (status in ('ACTIVE','INACTIVE','CLOSED','SUSPENDED')),
+    updated_at timestamp(6) not null,
+    primary key (id)
+);
+
+create table account_alerts (
+    id bigint generated by default as identity,
+    account_id bigint not null,
+    alert_type varchar(255) not null check (alert_type in ('LOW_BALANCE','HIGH_BALANCE','OVERDRAFT','LARGE_TRANSACTION','SECURITY')),
+    created_at timestamp(6) not null,
+    is_active boolean not null,
+    message varchar(255) not null,
+    primary key (id)
+);
+
+alter table if exists accounts add constraint UK_accounts_account_number_legacy unique (account_number);
+alter table if exists account_alerts add constraint FK_account_alerts_account_legacy foreign key (account_id) references accounts;
+
+insert into accounts (account_number, account_type, balance, created_at, currency, customer_id, overdraft_limit, status, updated_at)
+select 'LEGACY' || lpad(g::text, 6, '0'), 'CURRENT', 100.00 * g, now(), 'EUR', 7, 100, 'ACTIVE', now()
+from generate_series(1, 120) g;
+
+insert into account_alerts (account_id, alert_type, created_at, is_active, message)
+values (1, 'LOW_BALANCE', now(), true, 'Low balance');